@@ -0,0 +1,169 @@
+package com.tgp2.auth.config;
+
+import com.tgp2.auth.security.AccessTokenDenylist;
+import com.tgp2.auth.security.AuthFailureRecorder;
+import com.tgp2.auth.security.JwtUtils;
+import com.tgp2.auth.security.PasswordHashingExecutor;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.Filter;
+import jakarta.servlet.FilterChain;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.mock.web.MockServletContext;
+import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
+import org.springframework.security.web.DefaultSecurityFilterChain;
+import org.springframework.security.web.FilterChainProxy;
+import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.util.matcher.AnyRequestMatcher;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.context.support.AnnotationConfigWebApplicationContext;
+import org.springframework.web.servlet.config.annotation.EnableWebMvc;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request security overhead on {@code POST /api/auth/login} when the client still sends its
+ * old, expired access token. Both variants run a real {@link FilterChainProxy} built from the
+ * {@link SecurityConfig} chains: {@link #publicChain} is the proxy as configured, which routes login
+ * to the public chain; {@link #sharedChainWithJwtFilter} serves login from the same filters with
+ * {@link JwtAuthenticationFilter} added where the authenticated chain has it, as the single chain
+ * used to.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class PublicRouteFilterBenchmark {
+
+    private static final String SECRET = "357638792F423F4428472B4B6250655368566D597133743677397A2443264629";
+    private static final FilterChain NEXT = (request, response) -> { };
+
+    private AnnotationConfigWebApplicationContext context;
+    private FilterChainProxy configured;
+    private FilterChainProxy withJwtFilter;
+    private String staleToken;
+
+    @Configuration
+    @EnableWebMvc
+    @EnableWebSecurity
+    @Import(SecurityConfig.class)
+    static class BenchmarkSecurity {
+
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+
+        @Bean
+        PasswordHashingExecutor passwordHashingExecutor(MeterRegistry meterRegistry) {
+            return new PasswordHashingExecutor(meterRegistry, 1, 64, 1);
+        }
+
+        @Bean
+        JwtAuthenticationEntryPoint jwtAuthenticationEntryPoint() {
+            return new JwtAuthenticationEntryPoint();
+        }
+
+        @Bean
+        JwtAuthenticationFilter jwtAuthenticationFilter(MeterRegistry meterRegistry) {
+            JwtUtils jwtUtils = new JwtUtils();
+            ReflectionTestUtils.setField(jwtUtils, "jwtSecret", SECRET);
+            ReflectionTestUtils.setField(jwtUtils, "jwtExpirationMs", 3_600_000);
+            ReflectionTestUtils.invokeMethod(jwtUtils, "init");
+            return new JwtAuthenticationFilter(jwtUtils, null, new AccessTokenDenylist(),
+                    new AuthFailureRecorder(meterRegistry, 100, 5, false));
+        }
+    }
+
+    @Setup
+    public void setup() {
+        JwtUtils expired = new JwtUtils();
+        ReflectionTestUtils.setField(expired, "jwtSecret", SECRET);
+        ReflectionTestUtils.setField(expired, "jwtExpirationMs", -60_000);
+        ReflectionTestUtils.invokeMethod(expired, "init");
+        staleToken = expired.generateTokenFromEmail("bench@example.com");
+
+        context = new AnnotationConfigWebApplicationContext();
+        context.setServletContext(new MockServletContext());
+        context.getEnvironment().getPropertySources().addFirst(
+                new MapPropertySource("benchmark", Map.of("auth.passwordHashing.strength", 4)));
+        context.register(BenchmarkSecurity.class);
+        context.refresh();
+        configured = context.getBean(FilterChainProxy.class);
+
+        List<SecurityFilterChain> chains = configured.getFilterChains();
+        if (chains.size() != 2) {
+            throw new IllegalStateException("Expected the public and the authenticated chain, got " + chains.size());
+        }
+        withJwtFilter = new FilterChainProxy(new DefaultSecurityFilterChain(AnyRequestMatcher.INSTANCE,
+                withJwtFilter(chains.get(0).getFilters(), chains.get(1).getFilters())));
+    }
+
+    // the public chain's filters with the JWT filter inserted before the first filter that follows
+    // it in the authenticated chain
+    private static List<Filter> withJwtFilter(List<Filter> publicFilters, List<Filter> authenticatedFilters) {
+        int jwt = -1;
+        for (int i = 0; i < authenticatedFilters.size(); i++) {
+            if (authenticatedFilters.get(i) instanceof JwtAuthenticationFilter) {
+                jwt = i;
+            }
+        }
+        if (jwt < 0) {
+            throw new IllegalStateException("Authenticated chain has no JwtAuthenticationFilter");
+        }
+        List<Filter> filters = new ArrayList<>(publicFilters);
+        int at = filters.size();
+        for (Filter next : authenticatedFilters.subList(jwt + 1, authenticatedFilters.size())) {
+            int index = indexOfType(filters, next.getClass());
+            if (index >= 0) {
+                at = index;
+                break;
+            }
+        }
+        filters.add(at, authenticatedFilters.get(jwt));
+        return filters;
+    }
+
+    private static int indexOfType(List<Filter> filters, Class<?> type) {
+        for (int i = 0; i < filters.size(); i++) {
+            if (filters.get(i).getClass() == type) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    private MockHttpServletRequest loginRequest() {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/auth/login");
+        request.setServletPath("/api/auth/login");
+        request.addHeader("Authorization", "Bearer " + staleToken);
+        return request;
+    }
+
+    @Benchmark
+    public MockHttpServletResponse sharedChainWithJwtFilter() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        withJwtFilter.doFilter(loginRequest(), response, NEXT);
+        return response;
+    }
+
+    @Benchmark
+    public MockHttpServletResponse publicChain() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        configured.doFilter(loginRequest(), response, NEXT);
+        return response;
+    }
+}
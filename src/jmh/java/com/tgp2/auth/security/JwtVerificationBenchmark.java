@@ -0,0 +1,60 @@
+package com.tgp2.auth.security;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the old per-request verification (key and parser rebuilt, token parsed twice)
+ * with the single-pass {@link JwtUtils#verifyToken(String)} used by the filter, with and
+ * without the {@link VerifiedTokenCache}. Run with {@code -t} to see hits under contention.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class JwtVerificationBenchmark {
+
+    private static final String SECRET = "357638792F423F4428472B4B6250655368566D597133743677397A2443264629";
+
+    private JwtUtils jwtUtils;
+    private JwtUtils cachedJwtUtils;
+    private String token;
+
+    @Setup
+    public void setup() {
+        jwtUtils = new JwtUtils();
+        ReflectionTestUtils.setField(jwtUtils, "jwtSecret", SECRET);
+        ReflectionTestUtils.setField(jwtUtils, "jwtExpirationMs", 3_600_000);
+        jwtUtils.init();
+        token = jwtUtils.generateTokenFromEmail("bench@example.com");
+
+        cachedJwtUtils = new JwtUtils();
+        ReflectionTestUtils.setField(cachedJwtUtils, "jwtSecret", SECRET);
+        ReflectionTestUtils.setField(cachedJwtUtils, "jwtExpirationMs", 3_600_000);
+        ReflectionTestUtils.setField(cachedJwtUtils, "verifiedTokenCache",
+                new VerifiedTokenCache(new SimpleMeterRegistry(), 10_000));
+        cachedJwtUtils.init();
+    }
+
+    @Benchmark
+    public String legacyValidateThenExtract() {
+        // what the filter did before: validateJwtToken + getEmailFromJwtToken, each rebuilding key and parser
+        Jwts.parserBuilder().setSigningKey(Keys.hmacShaKeyFor(SECRET.getBytes())).build().parseClaimsJws(token);
+        return Jwts.parserBuilder().setSigningKey(Keys.hmacShaKeyFor(SECRET.getBytes())).build()
+                .parseClaimsJws(token).getBody().getSubject();
+    }
+
+    @Benchmark
+    public String singlePassVerify() {
+        return jwtUtils.verifyToken(token).email();
+    }
+
+    @Benchmark
+    public String cachedVerify() {
+        return cachedJwtUtils.verifyToken(token).email();
+    }
+}
@@ -0,0 +1,64 @@
+package com.tgp2.auth.security;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+/**
+ * Access-token issuance before and after {@link AccessTokenIssuer}: the jjwt builder with the
+ * long claim names and a key derived per call, against the precomputed signer with the compact
+ * layout. Token sizes for both layouts are printed once at setup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class TokenIssuanceBenchmark {
+
+    private static final String SECRET = "357638792F423F4428472B4B6250655368566D597133743677397A2443264629";
+
+    private AccessTokenIssuer issuer;
+    private List<AccessTokenIssuer.Principal> batch;
+
+    @Setup
+    public void setup() {
+        issuer = new AccessTokenIssuer(SECRET.getBytes(), 3_600_000, true);
+        batch = LongStream.rangeClosed(1, 100)
+                .mapToObj(id -> new AccessTokenIssuer.Principal(id, "svc" + id + "@example.com", "svc" + id, "Service"))
+                .toList();
+        System.out.printf("token bytes: legacy=%d compact=%d%n",
+                legacyBuilder().getBytes(StandardCharsets.US_ASCII).length,
+                precomputedSigner().getBytes(StandardCharsets.US_ASCII).length);
+    }
+
+    @Benchmark
+    public String legacyBuilder() {
+        Date now = new Date();
+        return Jwts.builder()
+                .setSubject("bench@example.com")
+                .claim("uid", 42L)
+                .claim("username", "benchuser")
+                .claim("role", "Student")
+                .setIssuedAt(now)
+                .setExpiration(new Date(now.getTime() + 3_600_000))
+                .signWith(Keys.hmacShaKeyFor(SECRET.getBytes()), SignatureAlgorithm.HS256)
+                .compact();
+    }
+
+    @Benchmark
+    public String precomputedSigner() {
+        return issuer.issue(42L, "bench@example.com", "benchuser", "Student").token();
+    }
+
+    // 100 tokens per op
+    @Benchmark
+    public List<IssuedToken> precomputedSignerBatch() {
+        return issuer.issueAll(batch);
+    }
+}
@@ -0,0 +1,113 @@
+package com.tgp2.auth.service.impl;
+
+import com.tgp2.auth.dto.FeedbackRequest;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Feedback items written per second when a reviewer submits {@value #ITEMS} papers' worth one call
+ * each (what {@code POST /api/feedback/submit} does per request) versus one batch call. The upsert
+ * is MySQL SQL, so this needs a MySQL schema the application has already created; point it there
+ * with {@code BENCH_JDBC_URL}, {@code BENCH_DB_USER} and {@code BENCH_DB_PASSWORD}. HTTP and
+ * authentication cost per request come on top of the single-item numbers.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class FeedbackSubmissionBenchmark {
+
+    static final int ITEMS = 50;
+
+    private JdbcTemplate jdbcTemplate;
+    private FeedbackServiceImpl feedbackService;
+    private Long userId;
+    private List<Long> paperIds;
+    private List<FeedbackRequest> requests;
+    private int round;
+
+    @Setup
+    public void setup() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                env("BENCH_JDBC_URL", "jdbc:mysql://localhost:3306/TGP_BENCH?rewriteBatchedStatements=true"),
+                env("BENCH_DB_USER", "root"),
+                env("BENCH_DB_PASSWORD", ""));
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        NamedParameterJdbcTemplate namedJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+        TransactionTemplate transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        feedbackService = new FeedbackServiceImpl(new FeedbackWriter(jdbcTemplate, namedJdbcTemplate, transactionTemplate),
+                null, namedJdbcTemplate, null, null);
+
+        String name = "bench-" + UUID.randomUUID();
+        userId = insert("INSERT INTO users (username, email, password, role) VALUES (?, ?, 'x', 'Student')",
+                name, name + "@example.com");
+        paperIds = new ArrayList<>(ITEMS);
+        for (int i = 0; i < ITEMS; i++) {
+            paperIds.add(insert("INSERT INTO papers (title, user_id) VALUES (?, ?)", name + "-" + i, userId));
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void nextRound() {
+        // vary the rating so every round really updates the rows
+        int rating = 1 + (round++ % 5);
+        requests = paperIds.stream()
+                .map(paperId -> FeedbackRequest.builder().paperId(paperId).feedbackType("CONTENT_QUALITY")
+                        .role("REVIEWER").rating(rating).feedbackText("benchmark").build())
+                .toList();
+    }
+
+    @TearDown
+    public void tearDown() {
+        jdbcTemplate.update("DELETE FROM feedback WHERE user_id = ?", userId);
+        jdbcTemplate.update("DELETE FROM paper_rating_summary WHERE paper_id IN (SELECT id FROM papers WHERE user_id = ?)", userId);
+        jdbcTemplate.update("DELETE FROM papers WHERE user_id = ?", userId);
+        jdbcTemplate.update("DELETE FROM users WHERE id = ?", userId);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ITEMS)
+    public Object singleSubmissions() {
+        Object last = null;
+        for (FeedbackRequest request : requests) {
+            last = feedbackService.submitFeedback(request, userId);
+        }
+        return last;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ITEMS)
+    public Object batchSubmission() {
+        return feedbackService.submitFeedbackBatch(requests, userId);
+    }
+
+    private Long insert(String sql, Object... args) {
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.update(con -> {
+            PreparedStatement ps = con.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS);
+            for (int i = 0; i < args.length; i++) {
+                ps.setObject(i + 1, args[i]);
+            }
+            return ps;
+        }, keyHolder);
+        return Objects.requireNonNull(keyHolder.getKey()).longValue();
+    }
+
+    private static String env(String name, String fallback) {
+        String value = System.getenv(name);
+        return value != null ? value : fallback;
+    }
+}
@@ -0,0 +1,53 @@
+package com.tgp2.auth.controller;
+
+import com.tgp2.auth.security.UserDetailsImpl;
+import com.tgp2.auth.service.UserImportService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.util.Set;
+
+@RestController
+@RequestMapping("/api/admin/users")
+@RequiredArgsConstructor
+public class AdminUserController {
+
+    private static final String NDJSON = "application/x-ndjson";
+
+    private final UserImportService userImportService;
+
+    // accounts allowed to import users, configured by operators; the role column is chosen by the
+    // user at signup and cannot grant this
+    @Value("${auth.userImport.allowedUserIds:}")
+    private Set<Long> allowedUserIds = Set.of();
+
+    // Streams the upload (text/csv with a header row, or application/x-ndjson) and answers with
+    // one NDJSON result per row as each chunk is committed. A malformed CSV header is a 400.
+    @PostMapping(value = "/import", consumes = {"text/csv", NDJSON})
+    public void importUsers(@AuthenticationPrincipal UserDetailsImpl principal,
+                            HttpServletRequest request,
+                            HttpServletResponse response) throws IOException {
+        requireImportAuthority(principal);
+        UserImportService.Format format = request.getContentType().startsWith("text/csv")
+                ? UserImportService.Format.CSV
+                : UserImportService.Format.NDJSON;
+
+        UserImportService.ImportSource source = userImportService.open(request.getInputStream(), format);
+        response.setContentType(NDJSON);
+        userImportService.importUsers(source, response.getOutputStream());
+    }
+
+    private void requireImportAuthority(UserDetailsImpl principal) {
+        if (principal == null || principal.getId() == null || !allowedUserIds.contains(principal.getId())) {
+            throw new AccessDeniedException("Not allowed to import users");
+        }
+    }
+}
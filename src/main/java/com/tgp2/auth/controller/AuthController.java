@@ -1,19 +1,27 @@
 package com.tgp2.auth.controller;
 
 import com.tgp2.auth.dto.ApiResponse;
+import com.tgp2.auth.dto.IntrospectionRequest;
 import com.tgp2.auth.dto.LoginRequest;
+import com.tgp2.auth.dto.SessionResponse;
 import com.tgp2.auth.dto.SignupRequest;
 import com.tgp2.auth.dto.TokenRefreshRequest;
 import com.tgp2.auth.security.UserDetailsImpl;
 import com.tgp2.auth.service.AuthService;
+import com.tgp2.auth.service.RefreshTokenService;
+import com.tgp2.auth.service.TokenIntrospectionService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.util.List;
+
 
 @RestController
 @RequestMapping("/api/auth")
@@ -21,6 +29,8 @@ import org.springframework.web.bind.annotation.RestController;
 public class AuthController {
 
     private final AuthService authService;
+    private final RefreshTokenService refreshTokenService;
+    private final TokenIntrospectionService tokenIntrospectionService;
 
     @PostMapping("/signup")
     public ResponseEntity<String> signup(@RequestBody SignupRequest request) {
@@ -38,8 +48,28 @@ public class AuthController {
     }
 
     @PostMapping("/logout")
-    public ResponseEntity<ApiResponse> logout(@AuthenticationPrincipal UserDetailsImpl userDetails) {
-        return authService.logoutUser(userDetails);
+    public ResponseEntity<ApiResponse> logout(@AuthenticationPrincipal UserDetailsImpl userDetails,
+                                              @RequestHeader(value = "Authorization", required = false) String authorization) {
+        String accessToken = authorization != null && authorization.startsWith("Bearer ")
+                ? authorization.substring(7)
+                : null;
+        return authService.logoutUser(userDetails, accessToken);
+    }
+
+    // For gateways: {"token": "..."} answers one object, {"tokens": [...]} a list in the same order.
+    // Other callers may only introspect their own tokens.
+    @PostMapping("/introspect")
+    public ResponseEntity<?> introspect(@AuthenticationPrincipal UserDetailsImpl userDetails,
+                                        @RequestBody IntrospectionRequest request) {
+        if (request.getTokens() != null) {
+            return ResponseEntity.ok(tokenIntrospectionService.introspectAll(userDetails, request.getTokens()));
+        }
+        return ResponseEntity.ok(tokenIntrospectionService.introspect(userDetails, request.getToken()));
+    }
+
+    @GetMapping("/sessions")
+    public ResponseEntity<List<SessionResponse>> sessions(@AuthenticationPrincipal UserDetailsImpl userDetails) {
+        return ResponseEntity.ok(refreshTokenService.listActiveSessions(userDetails.getId()));
     }
 
 
@@ -1,5 +1,8 @@
 package com.tgp2.auth.controller;
 
+import com.tgp2.auth.dto.FeedbackBatchResult;
+import com.tgp2.auth.dto.FeedbackPage;
+import com.tgp2.auth.dto.FeedbackReceipt;
 import com.tgp2.auth.dto.FeedbackRequest;
 import com.tgp2.auth.dto.FeedbackResponse;
 import com.tgp2.auth.security.UserDetailsImpl;
@@ -9,6 +12,8 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+
 @RestController
 @RequestMapping("/api/feedback")
 @RequiredArgsConstructor
@@ -16,10 +21,36 @@ public class FeedbackController {
 
     private final FeedbackService feedbackService;
 
+    // 201 with the saved feedback, or 202 with a tracking id when write-behind ingestion is enabled
     @PostMapping("/submit")
-    public ResponseEntity<FeedbackResponse> submitFeedback(@RequestBody FeedbackRequest req,
-                                                           @AuthenticationPrincipal UserDetailsImpl principal) {
+    public ResponseEntity<?> submitFeedback(@RequestBody FeedbackRequest req,
+                                            @AuthenticationPrincipal UserDetailsImpl principal) {
+        if (feedbackService.isWriteBehind()) {
+            return ResponseEntity.accepted().body(feedbackService.enqueueFeedback(req, principal.getId()));
+        }
         FeedbackResponse resp = feedbackService.submitFeedback(req, principal.getId());
         return ResponseEntity.status(201).body(resp);
     }
+
+    @GetMapping("/submit/{trackingId}")
+    public ResponseEntity<FeedbackReceipt> getReceipt(@PathVariable String trackingId,
+                                                      @AuthenticationPrincipal UserDetailsImpl principal) {
+        return ResponseEntity.ok(feedbackService.getReceipt(trackingId, principal.getId()));
+    }
+
+    // Validates every item, writes the valid ones in one transaction and reports each item's outcome
+    // in request order; invalid or unknown-paper items do not stop the others.
+    @PostMapping("/submit/batch")
+    public ResponseEntity<List<FeedbackBatchResult>> submitFeedbackBatch(@RequestBody List<FeedbackRequest> reqs,
+                                                                         @AuthenticationPrincipal UserDetailsImpl principal) {
+        return ResponseEntity.ok(feedbackService.submitFeedbackBatch(reqs, principal.getId()));
+    }
+
+    // Newest first; pass the returned nextCursor as ?after= to get the following page.
+    @GetMapping("/mine")
+    public ResponseEntity<FeedbackPage> getMyFeedback(@RequestParam(required = false) String after,
+                                                      @RequestParam(defaultValue = "20") int limit,
+                                                      @AuthenticationPrincipal UserDetailsImpl principal) {
+        return ResponseEntity.ok(feedbackService.getUserFeedback(principal.getId(), after, limit));
+    }
 }
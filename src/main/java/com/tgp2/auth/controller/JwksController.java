@@ -0,0 +1,32 @@
+package com.tgp2.auth.controller;
+
+import com.tgp2.auth.security.JwtKeyRing;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.Duration;
+import java.util.Map;
+
+@RestController
+@RequiredArgsConstructor
+public class JwksController {
+
+    private final JwtKeyRing keyRing;
+
+    // keep below the time between publishing a new key and signing with it
+    @Value("${jwt.jwksMaxAgeSeconds:300}")
+    private long maxAgeSeconds;
+
+    // Public keys for verifying access tokens locally; clients and proxies may cache the response.
+    @GetMapping("/.well-known/jwks.json")
+    public ResponseEntity<Map<String, Object>> jwks() {
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(Duration.ofSeconds(maxAgeSeconds)).cachePublic())
+                .eTag(Integer.toHexString(keyRing.jwks().hashCode()))
+                .body(keyRing.jwks());
+    }
+}
@@ -1,7 +1,10 @@
 package com.tgp2.auth.controller;
 import com.tgp2.auth.dto.ApiResponse;
+import com.tgp2.auth.dto.FeedbackPage;
+import com.tgp2.auth.dto.PaperRatingsResponse;
 import com.tgp2.auth.entity.Paper;
 import com.tgp2.auth.entity.User;
+import com.tgp2.auth.service.FeedbackService;
 import com.tgp2.auth.service.PaperService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
@@ -16,6 +19,7 @@ import java.util.List;
 public class PaperController {
 
     private final PaperService paperService;
+    private final FeedbackService feedbackService;
 
     @PostMapping
     public ResponseEntity<Paper> createPaper(@RequestBody Paper paper,
@@ -35,4 +39,17 @@ public class PaperController {
         paperService.deletePaper(id, user);
         return ResponseEntity.ok(new ApiResponse(true, "Paper deleted successfully"));
     }
-}
\ No newline at end of file
+
+    @GetMapping("/{id}/ratings")
+    public ResponseEntity<PaperRatingsResponse> getRatings(@PathVariable Long id) {
+        return ResponseEntity.ok(paperService.getRatings(id));
+    }
+
+    // Newest first; pass the returned nextCursor as ?after= to get the following page.
+    @GetMapping("/{id}/feedback")
+    public ResponseEntity<FeedbackPage> getFeedback(@PathVariable Long id,
+                                                    @RequestParam(required = false) String after,
+                                                    @RequestParam(defaultValue = "20") int limit) {
+        return ResponseEntity.ok(feedbackService.getPaperFeedback(id, after, limit));
+    }
+}
@@ -0,0 +1,13 @@
+package com.tgp2.auth.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class FeedbackBatchResult {
+    private int index;      // 0-based position in the submitted batch
+    private Long paperId;
+    private String status;  // SAVED, INVALID or NOT_FOUND
+    private String message;
+}
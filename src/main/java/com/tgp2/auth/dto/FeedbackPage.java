@@ -0,0 +1,13 @@
+package com.tgp2.auth.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+@Getter
+@AllArgsConstructor
+public class FeedbackPage {
+    private List<FeedbackResponse> items;
+    private String nextCursor;  // pass as ?after= for the next page; null on the last page
+}
@@ -0,0 +1,12 @@
+package com.tgp2.auth.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class FeedbackReceipt {
+    private String trackingId;
+    private String status;  // PENDING, SAVED or FAILED
+    private String message;
+}
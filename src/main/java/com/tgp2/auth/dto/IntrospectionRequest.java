@@ -0,0 +1,15 @@
+package com.tgp2.auth.dto;
+
+import lombok.*;
+
+import java.util.List;
+
+// either a single token or a batch of tokens
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class IntrospectionRequest {
+    private String token;
+    private List<String> tokens;
+}
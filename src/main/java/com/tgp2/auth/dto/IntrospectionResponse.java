@@ -0,0 +1,24 @@
+package com.tgp2.auth.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// RFC 7662 style: timestamps are epoch seconds, claims are omitted for invalid tokens
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class IntrospectionResponse {
+    private boolean active;
+    private String status; // active | expired | revoked | invalid
+    private String sub;
+    private Long uid;
+    private String username;
+    private String role;
+    private Long iat;
+    private Long exp;
+}
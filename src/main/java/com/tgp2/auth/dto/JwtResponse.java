@@ -2,6 +2,8 @@ package com.tgp2.auth.dto;
 
 import lombok.*;
 
+import java.time.Instant;
+
 @Getter
 @Setter
 @NoArgsConstructor
@@ -11,4 +13,7 @@ public class JwtResponse {
     private String accessToken;
     private String refreshToken;
     private String tokenType = "Bearer";
+    private Instant expiresAt;
+    // jittered per token; clients should refresh from here on rather than at expiresAt
+    private Instant refreshAfter;
 }
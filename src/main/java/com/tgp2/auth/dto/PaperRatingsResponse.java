@@ -0,0 +1,19 @@
+package com.tgp2.auth.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.Map;
+
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+public class PaperRatingsResponse {
+    private Long paperId;
+    private long count;
+    private Double average;                // null while the paper has no ratings
+    private Map<Integer, Long> histogram;  // rating 1..5 -> number of ratings
+}
@@ -0,0 +1,13 @@
+package com.tgp2.auth.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.Instant;
+
+@Data
+@AllArgsConstructor
+public class SessionResponse {
+    private Long id;
+    private Instant expiresAt;
+}
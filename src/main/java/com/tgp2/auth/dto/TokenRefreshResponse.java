@@ -3,16 +3,27 @@ package com.tgp2.auth.dto;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 
+import java.time.Instant;
+
 @Data
 @AllArgsConstructor
 public class TokenRefreshResponse {
     private String accessToken;
     private String refreshToken;
     private String tokenType = "Bearer";
+    private Instant expiresAt;
+    // jittered per token; clients should refresh from here on rather than at expiresAt
+    private Instant refreshAfter;
 
     public TokenRefreshResponse(String accessToken, String refreshToken) {
         this.accessToken = accessToken;
         this.refreshToken = refreshToken;
     }
+
+    public TokenRefreshResponse(String accessToken, String refreshToken, Instant expiresAt, Instant refreshAfter) {
+        this(accessToken, refreshToken);
+        this.expiresAt = expiresAt;
+        this.refreshAfter = refreshAfter;
+    }
 }
 
@@ -0,0 +1,13 @@
+package com.tgp2.auth.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class UserImportResult {
+    private long line;      // 1-based line in the uploaded body (header counts for CSV)
+    private String email;
+    private String status;  // CREATED, DUPLICATE, INVALID or FAILED
+    private String message;
+}
@@ -7,7 +7,13 @@ import org.hibernate.annotations.CreationTimestamp;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "feedback")
+@Table(name = "feedback",
+        uniqueConstraints = @UniqueConstraint(name = "uk_feedback_paper_user", columnNames = {"paper_id", "user_id"}),
+        // keyset pagination on (created_at, id) per paper and per user
+        indexes = {
+                @Index(name = "idx_feedback_paper_created", columnList = "paper_id, created_at, id"),
+                @Index(name = "idx_feedback_user_created", columnList = "user_id, created_at, id")
+        })
 @Getter
 @Setter
 @NoArgsConstructor
@@ -0,0 +1,43 @@
+package com.tgp2.auth.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * Running rating totals per paper, maintained incrementally by every feedback write and repaired by
+ * the periodic rebuild. Read-only from JPA's point of view.
+ */
+@Entity
+@Table(name = "paper_rating_summary")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PaperRatingSummary {
+
+    @Id
+    @Column(name = "paper_id")
+    private Long paperId;
+
+    @Column(name = "rating_count", nullable = false)
+    private long ratingCount;
+
+    @Column(name = "rating_sum", nullable = false)
+    private long ratingSum;
+
+    @Column(name = "rating_1", nullable = false)
+    private long rating1;
+
+    @Column(name = "rating_2", nullable = false)
+    private long rating2;
+
+    @Column(name = "rating_3", nullable = false)
+    private long rating3;
+
+    @Column(name = "rating_4", nullable = false)
+    private long rating4;
+
+    @Column(name = "rating_5", nullable = false)
+    private long rating5;
+}
@@ -13,16 +13,26 @@ import java.time.Instant;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "refresh_tokens")
+@Table(name = "refresh_tokens", indexes = {
+        // keeps each purge batch (DELETE ... WHERE expiry_date < ? LIMIT n) a range scan
+        @Index(name = "idx_refresh_tokens_expiry", columnList = "expiry_date"),
+        // per-user session listing and cap trimming read a user's tokens in expiry order
+        @Index(name = "idx_refresh_tokens_user_expiry", columnList = "user_id, expiry_date")
+})
 public class RefreshToken {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @Column(nullable = false, unique = true)
+    // raw token, only populated on the instance returned at issue/lookup time; never persisted
+    @Transient
     private String token;
 
-    @Column(nullable = false)
+    // SHA-256 (hex) of the token, looked up through the unique index on this column
+    @Column(name = "token", nullable = false, unique = true, length = 64)
+    private String tokenHash;
+
+    @Column(name = "expiry_date", nullable = false)
     private Instant expiryDate;
 
     @ManyToOne
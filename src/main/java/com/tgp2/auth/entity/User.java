@@ -6,6 +6,7 @@ import java.time.Instant;
 
 @Entity
 @Table(name = "users")
+@EntityListeners(UserCacheInvalidationListener.class)
 @Getter
 @Setter
 @NoArgsConstructor
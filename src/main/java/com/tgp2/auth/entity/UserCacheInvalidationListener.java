@@ -0,0 +1,42 @@
+package com.tgp2.auth.entity;
+
+import com.tgp2.auth.security.UserDetailsCache;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Evicts cached principals whenever a {@link User} row is changed through JPA
+ * (password or role changes, deletes). A newly persisted user cannot be cached yet,
+ * so signup evicts nothing. Bulk JPQL updates bypass entity callbacks and must
+ * evict explicitly.
+ * <p>
+ * Inside a transaction the eviction waits for the commit: evicting at flush time would let
+ * a concurrent login re-cache the old row before the change is visible to it.
+ */
+@Component
+@RequiredArgsConstructor
+public class UserCacheInvalidationListener {
+
+    private final UserDetailsCache userDetailsCache;
+
+    @PostUpdate
+    @PostRemove
+    public void onUserChanged(User user) {
+        Long id = user.getId();
+        String email = user.getEmail();
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            userDetailsCache.evict(id, email);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                userDetailsCache.evict(id, email);
+            }
+        });
+    }
+}
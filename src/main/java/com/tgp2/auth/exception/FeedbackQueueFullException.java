@@ -0,0 +1,17 @@
+package com.tgp2.auth.exception;
+
+import lombok.Getter;
+
+/**
+ * Thrown when the write-behind feedback queue is full or shutting down; mapped to 503 with Retry-After.
+ */
+@Getter
+public class FeedbackQueueFullException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public FeedbackQueueFullException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
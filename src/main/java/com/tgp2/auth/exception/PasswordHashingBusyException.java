@@ -0,0 +1,17 @@
+package com.tgp2.auth.exception;
+
+import lombok.Getter;
+
+/**
+ * Thrown when the password-hashing executor is saturated; mapped to 503 with Retry-After.
+ */
+@Getter
+public class PasswordHashingBusyException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public PasswordHashingBusyException(long retryAfterSeconds) {
+        super("Server is busy, please retry shortly");
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
@@ -1,10 +1,49 @@
 package com.tgp2.auth.repository;
 
 import com.tgp2.auth.entity.Feedback;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
 
 public interface FeedbackRepository extends JpaRepository<Feedback, Long> {
 //    boolean existsByPaperIdAndUserId(Long paperId, Long userId);
     Feedback findByPaperIdAndUserId(Long paperId, Long userId);
 
+    // Scalar projection: f.paper.id and f.user.id read the foreign key columns, so no Feedback
+    // entity is managed and no paper or user is ever loaded.
+    String VIEW_SELECT = "select f.id as id, f.paper.id as paperId, f.user.id as userId, f.feedbackType as feedbackType, "
+            + "f.role as role, f.rating as rating, f.feedbackText as feedbackText, f.createdAt as createdAt from Feedback f ";
+    // Keyset (seek) condition: newest first, strictly after the (createdAt, id) of the previous page's
+    // last row. Served by the (..., created_at, id) indexes at any depth, unlike an OFFSET. The
+    // redundant createdAt <= bound turns the OR into an index range, and ordering by the equality
+    // column first lets the index supply the order, so the scan stops after one page.
+    String AFTER_CURSOR = "and f.createdAt <= :createdAt and (f.createdAt < :createdAt or f.id < :id) ";
+    String NEWEST_FIRST = "f.createdAt desc, f.id desc";
+
+    @Query(VIEW_SELECT + "where f.paper.id = :paperId " + AFTER_CURSOR + "order by f.paper.id desc, " + NEWEST_FIRST)
+    List<FeedbackView> findPaperPage(@Param("paperId") Long paperId,
+                                     @Param("createdAt") LocalDateTime createdAt,
+                                     @Param("id") Long id,
+                                     Limit limit);
+
+    @Query(VIEW_SELECT + "where f.user.id = :userId " + AFTER_CURSOR + "order by f.user.id desc, " + NEWEST_FIRST)
+    List<FeedbackView> findUserPage(@Param("userId") Long userId,
+                                    @Param("createdAt") LocalDateTime createdAt,
+                                    @Param("id") Long id,
+                                    Limit limit);
+
+    interface FeedbackView {
+        Long getId();
+        Long getPaperId();
+        Long getUserId();
+        String getFeedbackType();
+        String getRole();
+        Integer getRating();
+        String getFeedbackText();
+        LocalDateTime getCreatedAt();
+    }
 }
@@ -0,0 +1,7 @@
+package com.tgp2.auth.repository;
+
+import com.tgp2.auth.entity.PaperRatingSummary;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface PaperRatingSummaryRepository extends JpaRepository<PaperRatingSummary, Long> {
+}
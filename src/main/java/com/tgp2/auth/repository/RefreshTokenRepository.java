@@ -1,12 +1,43 @@
 package com.tgp2.auth.repository;
 
 
+import com.tgp2.auth.dto.SessionResponse;
 import com.tgp2.auth.entity.RefreshToken;
 import com.tgp2.auth.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
 import java.util.Optional;
 
 public interface RefreshTokenRepository extends JpaRepository<RefreshToken, Long> {
-    Optional<RefreshToken> findByToken(String token);
-    int deleteByUser(User user);
+    Optional<RefreshToken> findByTokenHash(String tokenHash);
+
+    // single DELETE statement; the derived deleteBy variant loads and removes rows one by one
+    @Modifying
+    @Query("delete from RefreshToken t where t.user = :user")
+    int deleteByUser(@Param("user") User user);
+
+    // keeps the user's `keep` newest tokens and deletes the rest; the extra derived table
+    // works around MySQL not allowing LIMIT directly inside an IN subquery
+    @Modifying
+    @Query(value = "DELETE FROM refresh_tokens WHERE user_id = :userId AND id NOT IN ("
+            + "SELECT id FROM (SELECT id FROM refresh_tokens WHERE user_id = :userId "
+            + "ORDER BY expiry_date DESC, id DESC LIMIT :keep) newest)", nativeQuery = true)
+    int trimToNewest(@Param("userId") Long userId, @Param("keep") int keep);
+
+    // served by idx_refresh_tokens_user_expiry
+    @Query("select new com.tgp2.auth.dto.SessionResponse(t.id, t.expiryDate) from RefreshToken t "
+            + "where t.user.id = :userId and t.expiryDate > :now order by t.expiryDate desc")
+    List<SessionResponse> findActiveSessions(@Param("userId") Long userId, @Param("now") Instant now);
+
+    // MySQL single-table DELETE ... LIMIT: each call is one short transaction over at most `limit` rows
+    @Transactional
+    @Modifying
+    @Query(value = "DELETE FROM refresh_tokens WHERE expiry_date < :cutoff LIMIT :limit", nativeQuery = true)
+    int deleteExpiredBatch(@Param("cutoff") Instant cutoff, @Param("limit") int limit);
 }
@@ -0,0 +1,345 @@
+package com.tgp2.auth.security;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Revoked access tokens, checked on every authenticated request.
+ * <p>
+ * A token is identified by its {@link SignatureKey}, so no hashing is needed on the hot path.
+ * A Bloom filter answers "definitely not revoked" for almost every request without allocation;
+ * only filter hits consult the exact map. Revocations are appended to a memory-mapped file so a
+ * restarted node recovers its denylist without touching MySQL. Entries lapse when the token
+ * itself would have expired and are dropped from memory, filter and file by the periodic
+ * compaction.
+ * <p>
+ * Compaction never rewrites the live file: the surviving records go to a sibling temp file that is
+ * forced to disk and then atomically renamed over it, so a crash at any point leaves either the old
+ * or the new file intact. An append writes the record before it bumps the record count, so a torn
+ * append is ignored on the next start.
+ * <p>
+ * Nothing on the logout path rewrites or forces the file. Once the file is three quarters full a
+ * compaction is handed to a background thread; a file that fills up before it finishes is remapped
+ * at twice the size in place. The compaction writes its snapshot without holding the lock, so
+ * revocations keep appending meanwhile; only the records they add are copied over under the lock
+ * before the rename.
+ */
+@Slf4j
+@Component
+public class AccessTokenDenylist {
+
+    private static final int MAGIC = 0x4A444C31; // "JDL1"
+    private static final int HEADER_BYTES = 16;  // magic(4) + reserved(4) + record count(8)
+    private static final int RECORD_BYTES = 24;  // key hi(8) + key lo(8) + expiry epoch seconds(8)
+    private static final int HASHES = 5;
+
+    @Value("${auth.denylist.enabled:true}")
+    private boolean enabled;
+
+    @Value("${auth.denylist.file:data/access-token-denylist.bin}")
+    private String location;
+
+    @Value("${auth.denylist.capacity:100000}")
+    private int capacity;
+
+    @Value("${auth.denylist.bloomBits:1048576}")
+    private int bloomBits;
+
+    private final Map<SignatureKey, Long> revoked = new ConcurrentHashMap<>();
+    private final Object compactionLock = new Object();
+    private final AtomicBoolean compactionQueued = new AtomicBoolean();
+    private volatile AtomicLongArray bloom;
+    private Path file;
+    private FileChannel channel;
+    private MappedByteBuffer mapped;
+    private long recordCount;
+    private boolean closed;
+    // entries revoked while a compaction writes its snapshot; null when none is running
+    private List<Map.Entry<SignatureKey, Long>> sinceSnapshot;
+    private ExecutorService compactor;
+
+    @PostConstruct
+    void open() {
+        if (!enabled) {
+            return;
+        }
+        bloom = new AtomicLongArray(Math.max(1, bloomBits / 64));
+        file = Path.of(location);
+        compactor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "denylist-compaction");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            if (file.getParent() != null) {
+                Files.createDirectories(file.getParent());
+            }
+            channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            long existingRecords = channel.size() > HEADER_BYTES ? (channel.size() - HEADER_BYTES) / RECORD_BYTES : 0;
+            capacity = (int) Math.max(capacity, existingRecords);
+            map();
+            load();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open access-token denylist at " + file, e);
+        }
+    }
+
+    /**
+     * Hot path: no allocation and no locking unless the Bloom filter reports a possible hit.
+     */
+    public boolean isRevoked(String token) {
+        if (!enabled) {
+            return false;
+        }
+        int sig = SignatureKey.signatureOffset(token);
+        if (sig < 0) {
+            return false;
+        }
+        long hi = SignatureKey.bits(token, sig);
+        long lo = SignatureKey.bits(token, sig + SignatureKey.SIGNATURE_CHARS / 2);
+        if (!mightContain(bloom, hi, lo)) {
+            return false;
+        }
+        Long expiresAt = revoked.get(new SignatureKey(hi, lo));
+        return expiresAt != null && expiresAt > Instant.now().getEpochSecond();
+    }
+
+    public synchronized void revoke(String token, Instant expiresAt) {
+        if (!enabled || closed || expiresAt == null || !expiresAt.isAfter(Instant.now())) {
+            return;
+        }
+        SignatureKey key = SignatureKey.of(token);
+        if (key == null) {
+            return;
+        }
+        long expiry = expiresAt.getEpochSecond();
+        if (revoked.put(key, expiry) != null) {
+            return;
+        }
+        add(bloom, key.hi(), key.lo());
+        if (recordCount == capacity) {
+            grow();
+        }
+        append(key, expiry);
+        if (sinceSnapshot != null) {
+            sinceSnapshot.add(Map.entry(key, expiry));
+        }
+        if (recordCount >= capacity - capacity / 4 && compactionQueued.compareAndSet(false, true)) {
+            compactor.execute(this::compactQueued);
+        }
+    }
+
+    /**
+     * Drops lapsed entries and rewrites the filter and the file from the live set. The file is
+     * doubled until at most half of it is in use.
+     */
+    @Scheduled(fixedDelayString = "${auth.denylist.compactIntervalMs:600000}")
+    public void compact() {
+        if (!enabled) {
+            return;
+        }
+        synchronized (compactionLock) {
+            try {
+                compactOnce();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot compact access-token denylist at " + file, e);
+            }
+        }
+    }
+
+    private void compactQueued() {
+        try {
+            compact();
+        } catch (RuntimeException e) {
+            log.error("Access-token denylist compaction failed", e);
+        } finally {
+            compactionQueued.set(false);
+        }
+    }
+
+    private void compactOnce() throws IOException {
+        List<Map.Entry<SignatureKey, Long>> snapshot;
+        int bloomWords;
+        int newCapacity;
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            long now = Instant.now().getEpochSecond();
+            revoked.values().removeIf(expiry -> expiry <= now);
+            snapshot = new ArrayList<>(revoked.entrySet());
+            sinceSnapshot = new ArrayList<>();
+            bloomWords = bloom.length();
+            newCapacity = capacity(snapshot.size());
+        }
+
+        AtomicLongArray rebuilt = new AtomicLongArray(bloomWords);
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel out = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            // the bulk of the work, while revocations keep appending to the current file
+            MappedByteBuffer buffer = out.map(FileChannel.MapMode.READ_WRITE, 0, fileBytes(newCapacity));
+            long count = 0;
+            for (Map.Entry<SignatureKey, Long> entry : snapshot) {
+                put(buffer, count++, entry.getKey(), entry.getValue());
+                add(rebuilt, entry.getKey().hi(), entry.getKey().lo());
+            }
+            buffer.force();
+
+            synchronized (this) {
+                List<Map.Entry<SignatureKey, Long>> added = sinceSnapshot;
+                sinceSnapshot = null;
+                if (closed) {
+                    return;
+                }
+                if (count + added.size() > newCapacity) {
+                    newCapacity = capacity((int) count + added.size());
+                    buffer = out.map(FileChannel.MapMode.READ_WRITE, 0, fileBytes(newCapacity));
+                }
+                for (Map.Entry<SignatureKey, Long> entry : added) {
+                    put(buffer, count++, entry.getKey(), entry.getValue());
+                    add(rebuilt, entry.getKey().hi(), entry.getKey().lo());
+                }
+                buffer.putInt(0, MAGIC);
+                buffer.putLong(8, count);
+                buffer.force();
+                Files.move(tmp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+
+                if (channel != null) {
+                    channel.close();
+                }
+                channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+                if (newCapacity > capacity) {
+                    log.info("Access-token denylist grown to {} records", newCapacity);
+                }
+                capacity = newCapacity;
+                map();
+                recordCount = count;
+                bloom = rebuilt;
+            }
+        }
+    }
+
+    // never smaller than the current file, doubled until the live records take at most half
+    private int capacity(int live) {
+        int newCapacity = capacity;
+        while (live > newCapacity / 2) {
+            newCapacity *= 2;
+        }
+        return newCapacity;
+    }
+
+    public int size() {
+        return revoked.size();
+    }
+
+    @PreDestroy
+    void close() throws IOException {
+        if (compactor != null) {
+            compactor.shutdown();
+        }
+        synchronized (this) {
+            closed = true;
+            if (channel != null) {
+                mapped.force();
+                channel.close();
+            }
+        }
+    }
+
+    private void map() throws IOException {
+        mapped = channel.map(FileChannel.MapMode.READ_WRITE, 0, fileBytes(capacity));
+    }
+
+    private static long fileBytes(int capacity) {
+        return HEADER_BYTES + (long) capacity * RECORD_BYTES;
+    }
+
+    // a full file is remapped at twice the size; no rewrite and no force on the caller's thread
+    private void grow() {
+        try {
+            capacity *= 2;
+            map();
+            log.info("Access-token denylist grown to {} records", capacity);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot grow access-token denylist at " + file, e);
+        }
+    }
+
+    private void load() {
+        if (mapped.getInt(0) != MAGIC) {
+            mapped.putInt(0, MAGIC);
+            mapped.putLong(8, 0);
+        }
+        long stored = Math.min(mapped.getLong(8), capacity);
+        long now = Instant.now().getEpochSecond();
+        for (int i = 0; i < stored; i++) {
+            int pos = HEADER_BYTES + i * RECORD_BYTES;
+            long expiry = mapped.getLong(pos + 16);
+            if (expiry > now) {
+                SignatureKey key = new SignatureKey(mapped.getLong(pos), mapped.getLong(pos + 8));
+                revoked.put(key, expiry);
+                add(bloom, key.hi(), key.lo());
+            }
+        }
+        // rewrite without the lapsed records before accepting appends
+        compact();
+        log.info("Loaded {} revoked access tokens from {}", revoked.size(), file);
+    }
+
+    private void append(SignatureKey key, long expiry) {
+        put(mapped, recordCount, key, expiry);
+        // publish the record only after it is fully written
+        mapped.putLong(8, ++recordCount);
+    }
+
+    private static void put(MappedByteBuffer buffer, long index, SignatureKey key, long expiry) {
+        int pos = HEADER_BYTES + (int) index * RECORD_BYTES;
+        buffer.putLong(pos, key.hi());
+        buffer.putLong(pos + 8, key.lo());
+        buffer.putLong(pos + 16, expiry);
+    }
+
+    private static boolean mightContain(AtomicLongArray filter, long hi, long lo) {
+        long bitCount = (long) filter.length() * 64;
+        for (int i = 0; i < HASHES; i++) {
+            long bit = Math.floorMod(hi + i * lo, bitCount);
+            if ((filter.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void add(AtomicLongArray filter, long hi, long lo) {
+        long bitCount = (long) filter.length() * 64;
+        for (int i = 0; i < HASHES; i++) {
+            long bit = Math.floorMod(hi + i * lo, bitCount);
+            int word = (int) (bit >>> 6);
+            long mask = 1L << bit;
+            filter.getAndAccumulate(word, mask, (current, m) -> current | m);
+        }
+    }
+}
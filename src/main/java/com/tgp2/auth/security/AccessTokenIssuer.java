@@ -0,0 +1,120 @@
+package com.tgp2.auth.security;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Builds and signs access tokens without going through the jjwt builder.
+ * <p>
+ * The header segment is constant per key and encoded once, the payload is written straight into
+ * a reused buffer, and every thread signs with its own primitive initialised from the
+ * {@link TokenSigner}, so issuing a token costs one signature and two base64 passes. In compact
+ * layout the principal claims use short names ({@link VerifiedClaims#COMPACT_USERNAME} and
+ * {@link VerifiedClaims#COMPACT_ROLE}) and timestamps are whole epoch seconds, as for every JWT.
+ * Tokens are plain JWS, verified by the regular jjwt parser.
+ * <p>
+ * Lifetimes are shortened by a random jitter of up to {@code jitterMs}, and each token comes
+ * with a refresh hint drawn from the last {@code refreshWindowMs} before its expiry, so a wave of
+ * logins turns into refresh traffic spread over time instead of one synchronised spike.
+ */
+public class AccessTokenIssuer {
+
+    private final TokenSigner signer;
+    private final long validitySeconds;
+    private final long jitterSeconds;
+    private final long refreshWindowSeconds;
+    private final boolean compact;
+    private final ThreadLocal<StringBuilder> payload = ThreadLocal.withInitial(() -> new StringBuilder(256));
+
+    AccessTokenIssuer(TokenSigner signer, long validityMs, long jitterMs, long refreshWindowMs, boolean compact) {
+        this.signer = signer;
+        this.validitySeconds = validityMs / 1000;
+        // never jitter more than half the lifetime away
+        this.jitterSeconds = Math.max(0, Math.min(jitterMs / 1000, validitySeconds / 2));
+        this.refreshWindowSeconds = Math.max(0, refreshWindowMs / 1000);
+        this.compact = compact;
+    }
+
+    // HS256 with the shared secret, fixed lifetime
+    AccessTokenIssuer(byte[] secret, long validityMs, boolean compact) {
+        this(TokenSigner.hmac(secret), validityMs, 0, 0, compact);
+    }
+
+    public IssuedToken issue(Long userId, String email, String username, String role) {
+        return sign(Instant.now().getEpochSecond(), userId, email, username, role);
+    }
+
+    public IssuedToken issueForEmail(String email) {
+        return sign(Instant.now().getEpochSecond(), null, email, null, null);
+    }
+
+    /**
+     * Issues one token per principal with a shared issue time. Package-private: nothing outside
+     * the token machinery may mint tokens for arbitrary principals.
+     */
+    List<IssuedToken> issueAll(List<Principal> principals) {
+        return issueAll(principals, Instant.now());
+    }
+
+    List<IssuedToken> issueAll(List<Principal> principals, Instant issuedAt) {
+        long now = issuedAt.getEpochSecond();
+        List<IssuedToken> tokens = new ArrayList<>(principals.size());
+        for (Principal p : principals) {
+            tokens.add(sign(now, p.userId(), p.email(), p.username(), p.role()));
+        }
+        return tokens;
+    }
+
+    private IssuedToken sign(long issuedAt, Long userId, String email, String username, String role) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long expiresAt = issuedAt + validitySeconds - (jitterSeconds > 0 ? random.nextLong(jitterSeconds + 1) : 0);
+        long refreshAfter = Math.max(issuedAt,
+                expiresAt - (refreshWindowSeconds > 0 ? random.nextLong(refreshWindowSeconds + 1) : 0));
+
+        StringBuilder json = payload.get();
+        json.setLength(0);
+        json.append('{');
+        appendString(json, "sub", email);
+        if (userId != null) {
+            json.append(",\"").append(VerifiedClaims.USER_ID).append("\":").append(userId);
+        }
+        if (username != null) {
+            json.append(',');
+            appendString(json, compact ? VerifiedClaims.COMPACT_USERNAME : VerifiedClaims.USERNAME, username);
+        }
+        if (role != null) {
+            json.append(',');
+            appendString(json, compact ? VerifiedClaims.COMPACT_ROLE : VerifiedClaims.ROLE, role);
+        }
+        json.append(",\"iat\":").append(issuedAt)
+                .append(",\"exp\":").append(expiresAt)
+                .append('}');
+
+        String signingInput = signer.header() + '.'
+                + TokenSigner.BASE64URL.encodeToString(json.toString().getBytes(StandardCharsets.UTF_8));
+        byte[] signature = signer.sign(signingInput.getBytes(StandardCharsets.US_ASCII));
+        return new IssuedToken(signingInput + '.' + TokenSigner.BASE64URL.encodeToString(signature),
+                Instant.ofEpochSecond(expiresAt), Instant.ofEpochSecond(refreshAfter));
+    }
+
+    private static void appendString(StringBuilder json, String name, String value) {
+        json.append('"').append(name).append("\":\"");
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                json.append('\\').append(c);
+            } else if (c < 0x20) {
+                json.append(String.format("\\u%04x", (int) c));
+            } else {
+                json.append(c);
+            }
+        }
+        json.append('"');
+    }
+
+    public record Principal(Long userId, String email, String username, String role) {
+    }
+}
@@ -0,0 +1,118 @@
+package com.tgp2.auth.security;
+
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Counts every failed request authentication by cause as {@code auth.failures{cause}} and logs
+ * only a sample of them: every {@code sampleEvery}-th failure of a cause, and never more than
+ * {@code maxPerSecond} lines per second overall. A flood of bad tokens therefore costs a counter
+ * increment per request instead of a stack trace. Stack traces are only written with
+ * {@code auth.failureLog.stackTraces: true}.
+ */
+@Slf4j
+@Component
+public class AuthFailureRecorder {
+
+    public enum Cause {
+        EXPIRED, BAD_SIGNATURE, MALFORMED, REVOKED, UNKNOWN_USER, ERROR;
+
+        final String tag = name().toLowerCase(Locale.ROOT);
+    }
+
+    private final Map<Cause, Counter> counters = new EnumMap<>(Cause.class);
+    private final Map<Cause, AtomicLong> occurrences = new EnumMap<>(Cause.class);
+    private final AtomicLong suppressed = new AtomicLong();
+    private final AtomicLong windowStart = new AtomicLong();
+    private final AtomicLong loggedInWindow = new AtomicLong();
+    private final long sampleEvery;
+    private final long maxPerSecond;
+    private final boolean stackTraces;
+
+    LongSupplier clock = System::currentTimeMillis;
+
+    public AuthFailureRecorder(MeterRegistry meterRegistry,
+                               @Value("${auth.failureLog.sampleEvery:100}") long sampleEvery,
+                               @Value("${auth.failureLog.maxPerSecond:5}") long maxPerSecond,
+                               @Value("${auth.failureLog.stackTraces:false}") boolean stackTraces) {
+        this.sampleEvery = Math.max(1, sampleEvery);
+        this.maxPerSecond = maxPerSecond;
+        this.stackTraces = stackTraces;
+        for (Cause cause : Cause.values()) {
+            counters.put(cause, Counter.builder("auth.failures")
+                    .description("Requests whose bearer token was rejected, by cause")
+                    .tag("cause", cause.tag)
+                    .register(meterRegistry));
+            occurrences.put(cause, new AtomicLong());
+        }
+    }
+
+    public static Cause classify(Exception ex) {
+        if (ex instanceof ExpiredJwtException) {
+            return Cause.EXPIRED;
+        }
+        if (ex instanceof io.jsonwebtoken.security.SecurityException) {
+            return Cause.BAD_SIGNATURE;
+        }
+        if (ex instanceof JwtException || ex instanceof IllegalArgumentException) {
+            return Cause.MALFORMED;
+        }
+        if (ex instanceof UsernameNotFoundException) {
+            return Cause.UNKNOWN_USER;
+        }
+        return Cause.ERROR;
+    }
+
+    public void record(Exception ex, HttpServletRequest request) {
+        record(classify(ex), ex, request);
+    }
+
+    public void record(Cause cause, Exception ex, HttpServletRequest request) {
+        counters.get(cause).increment();
+        if (!shouldLog(cause)) {
+            suppressed.incrementAndGet();
+            return;
+        }
+        // never the token itself: it may still be valid elsewhere
+        String message = "Rejected bearer token ({}) on {} {} from {}: {} [{} similar suppressed]";
+        Object[] args = {cause.tag, request.getMethod(), request.getRequestURI(), request.getRemoteAddr(),
+                ex != null ? ex.getMessage() : "-", suppressed.getAndSet(0)};
+        if (stackTraces && ex != null) {
+            log.warn(message, append(args, ex)); // trailing throwable: SLF4J prints its stack trace
+        } else {
+            log.warn(message, args);
+        }
+    }
+
+    boolean shouldLog(Cause cause) {
+        if ((occurrences.get(cause).getAndIncrement() % sampleEvery) != 0) {
+            return false;
+        }
+        long second = clock.getAsLong() / 1000;
+        long start = windowStart.get();
+        if (second != start && windowStart.compareAndSet(start, second)) {
+            loggedInWindow.set(0);
+        }
+        return loggedInWindow.incrementAndGet() <= maxPerSecond;
+    }
+
+    private static Object[] append(Object[] args, Exception ex) {
+        Object[] withThrowable = new Object[args.length + 1];
+        System.arraycopy(args, 0, withThrowable, 0, args.length);
+        withThrowable[args.length] = ex;
+        return withThrowable;
+    }
+}
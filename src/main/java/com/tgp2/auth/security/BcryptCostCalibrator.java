@@ -0,0 +1,45 @@
+package com.tgp2.auth.security;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+/**
+ * Picks the BCrypt cost for this host at startup. Each cost step doubles the work, so one
+ * timed hash at the minimum cost is enough to predict the others.
+ */
+@Slf4j
+public final class BcryptCostCalibrator {
+
+    public static final int MIN_STRENGTH = 10; // BCrypt default, never go below it
+    public static final int MAX_STRENGTH = 16;
+
+    private static final String SAMPLE = "calibration-Passw0rd!";
+    private static final int SAMPLES = 3;
+
+    private BcryptCostCalibrator() {
+    }
+
+    /**
+     * @return the highest strength whose hash time stays within {@code targetMs} on this host
+     */
+    public static int calibrate(long targetMs) {
+        BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(MIN_STRENGTH);
+        encoder.encode(SAMPLE); // warm-up
+
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < SAMPLES; i++) {
+            long start = System.nanoTime();
+            encoder.encode(SAMPLE);
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        double baseMs = best / 1_000_000.0;
+
+        int strength = MIN_STRENGTH;
+        while (strength < MAX_STRENGTH && baseMs * (1L << (strength + 1 - MIN_STRENGTH)) <= targetMs) {
+            strength++;
+        }
+        log.info("BCrypt calibrated: cost {} (~{} ms per hash, target {} ms)",
+                strength, Math.round(baseMs * (1L << (strength - MIN_STRENGTH))), targetMs);
+        return strength;
+    }
+}
@@ -0,0 +1,39 @@
+package com.tgp2.auth.security;
+
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+/**
+ * Runs the expensive {@code encode}/{@code matches} calls of the wrapped encoder on the
+ * {@link PasswordHashingExecutor} instead of the calling request thread.
+ */
+public class BoundedPasswordEncoder implements PasswordEncoder {
+
+    private final PasswordEncoder delegate;
+    private final PasswordHashingExecutor executor;
+
+    public BoundedPasswordEncoder(PasswordEncoder delegate, PasswordHashingExecutor executor) {
+        this.delegate = delegate;
+        this.executor = executor;
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return executor.encode(() -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return executor.matches(() -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        // only inspects the hash prefix, cheap enough to stay on the caller
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    // Direct access for work that already runs off the request path (background or bulk jobs).
+    public PasswordEncoder unbounded() {
+        return delegate;
+    }
+}
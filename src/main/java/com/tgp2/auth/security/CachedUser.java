@@ -0,0 +1,18 @@
+package com.tgp2.auth.security;
+
+import com.tgp2.auth.entity.User;
+
+/**
+ * Immutable identity snapshot kept in {@link UserDetailsCache}. Deliberately excludes the
+ * password hash and the managed {@link User} entity so cached entries stay small and inert.
+ */
+public record CachedUser(Long id, String username, String email, String role) {
+
+    public static CachedUser of(User user) {
+        return new CachedUser(user.getId(), user.getUsername(), user.getEmail(), user.getRole());
+    }
+
+    public UserDetailsImpl toUserDetails() {
+        return UserDetailsImpl.withoutCredentials(id, username, email, role);
+    }
+}
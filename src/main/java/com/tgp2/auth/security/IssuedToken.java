@@ -0,0 +1,10 @@
+package com.tgp2.auth.security;
+
+import java.time.Instant;
+
+/**
+ * A freshly signed access token with its expiry and the time from which the client should
+ * refresh it. Both are randomised per token so clients issued together do not refresh together.
+ */
+public record IssuedToken(String token, Instant expiresAt, Instant refreshAfter) {
+}
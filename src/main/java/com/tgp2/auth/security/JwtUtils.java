@@ -1,12 +1,16 @@
 package com.tgp2.auth.security;
 
+import com.tgp2.auth.entity.User;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.SignatureException;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import java.security.Key;
-import java.util.Date;
+import java.util.Optional;
 
 @Component
 public class JwtUtils {
@@ -17,46 +21,124 @@ public class JwtUtils {
     @Value("${jwt.expirationMs}")
     private int jwtExpirationMs;
 
-    private Key getSigningKey() {
-        return Keys.hmacShaKeyFor(jwtSecret.getBytes());
+    // random shortening of each token's lifetime, and the window before expiry in which the
+    // refresh hint is placed; both spread refreshes of tokens issued at the same moment
+    @Value("${jwt.expiryJitterMs:0}")
+    private long expiryJitterMs;
+
+    @Value("${jwt.refreshWindowMs:0}")
+    private long refreshWindowMs;
+
+    // short claim names in issued tokens; the parser accepts both layouts
+    @Value("${jwt.compactClaims:true}")
+    private boolean compactClaims = true;
+
+    // RS256 keys; without them (or with jwt.algorithm: HS256) tokens are signed with jwt.secret
+    @Autowired(required = false)
+    private JwtKeyRing keyRing;
+
+    // in RS256 mode, whether tokens without a kid may still be verified with jwt.secret; only for
+    // the migration window after switching, since anyone holding the secret can forge them
+    @Value("${jwt.acceptLegacyHs256:false}")
+    private boolean acceptLegacyHs256;
+
+    // key, parser and issuer are immutable and thread-safe, so build them once instead of per call
+    private Key signingKey;
+    private JwtParser jwtParser;
+    private AccessTokenIssuer issuer;
+
+    // optional: skips signature check and parse for tokens verified recently
+    @Autowired(required = false)
+    private VerifiedTokenCache verifiedTokenCache;
+
+    @PostConstruct
+    void init() {
+        this.signingKey = Keys.hmacShaKeyFor(jwtSecret.getBytes());
+        this.jwtParser = Jwts.parserBuilder().setSigningKeyResolver(new KidResolver()).build();
+        TokenSigner signer = keyRing != null && keyRing.isAsymmetric()
+                ? TokenSigner.rsa(keyRing.activeKid(), keyRing.signingKey())
+                : TokenSigner.hmac(jwtSecret.getBytes());
+        this.issuer = new AccessTokenIssuer(signer, jwtExpirationMs, expiryJitterMs, refreshWindowMs, compactClaims);
+    }
+
+    // RS256 tokens name their key in the kid header; HS256 tokens (no kid) use the shared secret,
+    // which in RS256 mode requires jwt.acceptLegacyHs256.
+    // jjwt rejects a header alg that does not match the resolved key type.
+    private class KidResolver extends SigningKeyResolverAdapter {
+        @Override
+        public Key resolveSigningKey(JwsHeader header, Claims claims) {
+            String kid = header.getKeyId();
+            if (kid == null) {
+                if (keyRing != null && keyRing.isAsymmetric() && !acceptLegacyHs256) {
+                    throw new SignatureException("Token has no signing key id");
+                }
+                return signingKey;
+            }
+            Key key = keyRing != null ? keyRing.verificationKey(kid) : null;
+            if (key == null) {
+                throw new SignatureException("Unknown signing key id: " + kid);
+            }
+            return key;
+        }
     }
 
     public String generateJwtToken(UserDetailsImpl userDetails) {
-        Date now = new Date();
-        Date expiryDate = new Date(now.getTime() + jwtExpirationMs);
+        return issueAccessToken(userDetails).token();
+    }
 
-        return Jwts.builder()
-                .setSubject(userDetails.getEmail())   // using email as subject/principal
-                .setIssuedAt(now)
-                .setExpiration(expiryDate)
-                .signWith(getSigningKey(), SignatureAlgorithm.HS256)
-                .compact();
+    // Same token as generateJwtToken, with its expiry and refresh hint for the response.
+    public IssuedToken issueAccessToken(UserDetailsImpl userDetails) {
+        return issuer.issue(userDetails.getId(), userDetails.getEmail(),
+                userDetails.getAccountUsername(), userDetails.getRole());
+    }
+
+    // Issues an access token for a user loaded outside the authentication flow (e.g. on refresh).
+    // Carries id, username and role so the filter can rebuild the principal without a DB lookup.
+    public IssuedToken issueAccessToken(User user) {
+        return issuer.issue(user.getId(), user.getEmail(), user.getUsername(), user.getRole());
     }
 
     // If you need to build token from username/email string:
     public String generateTokenFromEmail(String email) {
-        Date now = new Date();
-        Date expiryDate = new Date(now.getTime() + jwtExpirationMs);
-        return Jwts.builder()
-                .setSubject(email)
-                .setIssuedAt(now)
-                .setExpiration(expiryDate)
-                .signWith(getSigningKey(), SignatureAlgorithm.HS256)
-                .compact();
+        return issuer.issueForEmail(email).token();
     }
 
-    public String getEmailFromJwtToken(String token) {
-        return Jwts.parserBuilder().setSigningKey(getSigningKey()).build()
-                .parseClaimsJws(token).getBody().getSubject();
+    /**
+     * Verifies the signature and expiry of the token and decodes its claims in a single pass.
+     *
+     * @throws JwtException             if the token is expired, tampered with or malformed
+     * @throws IllegalArgumentException if the token is null or blank
+     */
+    public VerifiedClaims verifyToken(String token) {
+        if (verifiedTokenCache != null) {
+            VerifiedClaims cached = verifiedTokenCache.get(token);
+            if (cached != null) {
+                return cached;
+            }
+        }
+        VerifiedClaims claims = VerifiedClaims.from(jwtParser.parseClaimsJws(token).getBody());
+        if (verifiedTokenCache != null) {
+            verifiedTokenCache.put(token, claims);
+        }
+        return claims;
     }
 
-    public boolean validateJwtToken(String authToken) {
+    /**
+     * Same as {@link #verifyToken(String)} but returns empty instead of throwing for an invalid token.
+     */
+    public Optional<VerifiedClaims> parseVerifiedClaims(String token) {
         try {
-            Jwts.parserBuilder().setSigningKey(getSigningKey()).build().parseClaimsJws(authToken);
-            return true;
+            return Optional.of(verifyToken(token));
         } catch (JwtException | IllegalArgumentException e) {
-            // log if you want
+            return Optional.empty();
         }
-        return false;
+    }
+
+    public String getEmailFromJwtToken(String token) {
+        return verifyToken(token).email();
+    }
+
+    public boolean validateJwtToken(String authToken) {
+        return parseVerifiedClaims(authToken).isPresent();
     }
 }
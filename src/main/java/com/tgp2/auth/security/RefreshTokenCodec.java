@@ -0,0 +1,106 @@
+package com.tgp2.auth.security;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.Optional;
+
+/**
+ * Issues and checks self-validating refresh tokens of the form
+ * {@code base64url(selector || expiry) "." base64url(HMAC-SHA256)}.
+ * <p>
+ * The random selector stands in for a row id, which is not known until after the INSERT.
+ * Malformed and forged tokens fail the MAC check in memory, and expired tokens are rejected by
+ * their embedded expiry, so neither reaches the database. Only {@link #hash(String)} of the token
+ * is persisted.
+ */
+@Component
+public class RefreshTokenCodec {
+
+    private static final int SELECTOR_BYTES = 16;
+    private static final int PAYLOAD_BYTES = SELECTOR_BYTES + Long.BYTES;
+    private static final int MAC_BYTES = 32;
+    // base64url without padding: 24 payload bytes -> 32 chars, 32 MAC bytes -> 43 chars
+    private static final int TOKEN_LENGTH = 32 + 1 + 43;
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    @Value("${jwt.refreshTokenSecret:${jwt.secret}}")
+    private String secret;
+
+    private final SecureRandom random = new SecureRandom();
+    private SecretKeySpec macKey;
+    private ThreadLocal<Mac> macs;
+
+    @PostConstruct
+    void init() {
+        // derive a dedicated key so refresh-token MACs can never be confused with JWT signatures
+        this.macKey = new SecretKeySpec(
+                newMac(new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), "HmacSHA256"))
+                        .doFinal("refresh-token-v1".getBytes(StandardCharsets.UTF_8)),
+                "HmacSHA256");
+        this.macs = ThreadLocal.withInitial(() -> newMac(macKey));
+    }
+
+    public String issue(Instant expiry) {
+        byte[] payload = new byte[PAYLOAD_BYTES];
+        byte[] selector = new byte[SELECTOR_BYTES];
+        random.nextBytes(selector);
+        ByteBuffer.wrap(payload).put(selector).putLong(expiry.getEpochSecond());
+        return ENCODER.encodeToString(payload) + "." + ENCODER.encodeToString(macs.get().doFinal(payload));
+    }
+
+    /**
+     * @return the embedded expiry if the token is well-formed and carries a valid MAC, otherwise empty
+     */
+    public Optional<Instant> verify(String token) {
+        if (token == null || token.length() != TOKEN_LENGTH || token.charAt(32) != '.') {
+            return Optional.empty();
+        }
+        byte[] payload;
+        byte[] mac;
+        try {
+            payload = DECODER.decode(token.substring(0, 32));
+            mac = DECODER.decode(token.substring(33));
+        } catch (IllegalArgumentException e) {
+            return Optional.empty();
+        }
+        if (payload.length != PAYLOAD_BYTES || mac.length != MAC_BYTES
+                || !MessageDigest.isEqual(mac, macs.get().doFinal(payload))) {
+            return Optional.empty();
+        }
+        return Optional.of(Instant.ofEpochSecond(ByteBuffer.wrap(payload, SELECTOR_BYTES, Long.BYTES).getLong()));
+    }
+
+    // Value stored in refresh_tokens.token; a DB leak does not expose usable tokens.
+    public String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return HexFormat.of().formatHex(digest);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static Mac newMac(SecretKeySpec key) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(key);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.tgp2.auth.security;
+
+/**
+ * 120 bits read straight from a token's signature segment. The signature is already a uniformly
+ * distributed MAC, so it serves as a digest of the token without hashing the whole string.
+ */
+record SignatureKey(long hi, long lo) {
+
+    static final int SIGNATURE_CHARS = 20; // 2 x 10 base64url chars = 120 bits
+
+    /**
+     * @return the key, or {@code null} if the token has no signature segment long enough
+     */
+    static SignatureKey of(String token) {
+        int sig = signatureOffset(token);
+        return sig < 0 ? null : new SignatureKey(bits(token, sig), bits(token, sig + SIGNATURE_CHARS / 2));
+    }
+
+    static int signatureOffset(String token) {
+        int dot = token == null ? -1 : token.lastIndexOf('.');
+        return dot < 0 || token.length() - dot - 1 < SIGNATURE_CHARS ? -1 : dot + 1;
+    }
+
+    // packs 10 base64url characters (6 bits each) into a long
+    static long bits(String token, int from) {
+        long value = 0;
+        for (int i = from; i < from + SIGNATURE_CHARS / 2; i++) {
+            value = (value << 6) | base64UrlValue(token.charAt(i));
+        }
+        return value;
+    }
+
+    private static int base64UrlValue(char c) {
+        if (c >= 'A' && c <= 'Z') return c - 'A';
+        if (c >= 'a' && c <= 'z') return c - 'a' + 26;
+        if (c >= '0' && c <= '9') return c - '0' + 52;
+        return c == '-' ? 62 : 63;
+    }
+}
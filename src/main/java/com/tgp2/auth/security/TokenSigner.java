@@ -0,0 +1,110 @@
+package com.tgp2.auth.security;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.PrivateKey;
+import java.security.Signature;
+import java.util.Base64;
+
+/**
+ * Signs JWS signing input for {@link AccessTokenIssuer}. Each signer owns its encoded header,
+ * which is constant per key, and keeps one initialised primitive per thread.
+ */
+interface TokenSigner {
+
+    Base64.Encoder BASE64URL = Base64.getUrlEncoder().withoutPadding();
+
+    /** Base64url-encoded JOSE header. */
+    String header();
+
+    byte[] sign(byte[] signingInput);
+
+    static TokenSigner hmac(byte[] secret) {
+        return new Hmac(secret);
+    }
+
+    static TokenSigner rsa(String kid, PrivateKey privateKey) {
+        return new Rsa(kid, privateKey);
+    }
+
+    private static String encodeHeader(String json) {
+        return BASE64URL.encodeToString(json.getBytes(StandardCharsets.UTF_8));
+    }
+
+    final class Hmac implements TokenSigner {
+        private static final String ALGORITHM = "HmacSHA256";
+        private static final String HEADER = encodeHeader("{\"alg\":\"HS256\"}");
+
+        private final Mac prototype;
+        private final ThreadLocal<Mac> mac = ThreadLocal.withInitial(this::newMac);
+
+        private Hmac(byte[] secret) {
+            try {
+                this.prototype = Mac.getInstance(ALGORITHM);
+                this.prototype.init(new SecretKeySpec(secret, ALGORITHM));
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException("Cannot initialise " + ALGORITHM, e);
+            }
+        }
+
+        @Override
+        public String header() {
+            return HEADER;
+        }
+
+        @Override
+        public byte[] sign(byte[] signingInput) {
+            return mac.get().doFinal(signingInput);
+        }
+
+        private Mac newMac() {
+            try {
+                return (Mac) prototype.clone();
+            } catch (CloneNotSupportedException e) {
+                throw new IllegalStateException(ALGORITHM + " provider does not support clone", e);
+            }
+        }
+    }
+
+    final class Rsa implements TokenSigner {
+        private static final String ALGORITHM = "SHA256withRSA";
+
+        private final String header;
+        private final PrivateKey privateKey;
+        private final ThreadLocal<Signature> signature = ThreadLocal.withInitial(this::newSignature);
+
+        private Rsa(String kid, PrivateKey privateKey) {
+            this.header = encodeHeader("{\"alg\":\"RS256\",\"kid\":\"" + kid + "\"}");
+            this.privateKey = privateKey;
+            newSignature(); // fail at startup rather than on the first login
+        }
+
+        @Override
+        public String header() {
+            return header;
+        }
+
+        @Override
+        public byte[] sign(byte[] signingInput) {
+            try {
+                Signature rsa = signature.get();
+                rsa.update(signingInput);
+                return rsa.sign(); // resets to the initialised state for the next token
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException("RS256 signing failed", e);
+            }
+        }
+
+        private Signature newSignature() {
+            try {
+                Signature rsa = Signature.getInstance(ALGORITHM);
+                rsa.initSign(privateKey);
+                return rsa;
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException("Cannot initialise " + ALGORITHM, e);
+            }
+        }
+    }
+}
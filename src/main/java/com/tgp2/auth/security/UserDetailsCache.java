@@ -0,0 +1,82 @@
+package com.tgp2.auth.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Size- and TTL-bounded cache of request principals keyed by email, used by the DB-backed
+ * principal lookup. Hit/miss/eviction counts are published as the {@code cache.*} metrics
+ * tagged {@code cache=userDetails}.
+ * <p>
+ * A side map from user id to the email the user is cached under lets an eviction by id drop the
+ * entry with one lookup, including after an email change. Each user has at most one entry: caching
+ * a user under a new email drops the old one, and an entry that expires or is pushed out removes its
+ * side-map mapping.
+ */
+@Component
+public class UserDetailsCache {
+
+    static final String CACHE_NAME = "userDetails";
+
+    private final Cache<String, CachedUser> cache;
+    private final Map<Long, String> emailsById = new ConcurrentHashMap<>();
+
+    public UserDetailsCache(MeterRegistry meterRegistry,
+                            @Value("${auth.userCache.maxSize:10000}") long maxSize,
+                            @Value("${auth.userCache.ttlSeconds:300}") long ttlSeconds) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .evictionListener((String email, CachedUser user, RemovalCause cause) -> {
+                    if (user != null) {
+                        emailsById.remove(user.id(), email);
+                    }
+                })
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    }
+
+    public Optional<CachedUser> get(String email) {
+        return Optional.ofNullable(cache.getIfPresent(email));
+    }
+
+    public void put(CachedUser user) {
+        String previous = emailsById.put(user.id(), user.email());
+        if (previous != null && !previous.equals(user.email())) {
+            cache.invalidate(previous);
+        }
+        cache.put(user.email(), user);
+    }
+
+    /**
+     * Drops every entry for the user. Looking up the id as well covers email changes,
+     * where the entry is still stored under the old email.
+     */
+    public void evict(Long userId, String email) {
+        if (email != null) {
+            cache.invalidate(email);
+        }
+        if (userId != null) {
+            String cachedEmail = emailsById.remove(userId);
+            if (cachedEmail != null) {
+                cache.invalidate(cachedEmail);
+            }
+        }
+    }
+
+    public void evictAll() {
+        cache.invalidateAll();
+        emailsById.clear();
+    }
+}
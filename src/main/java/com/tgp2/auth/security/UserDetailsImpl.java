@@ -32,6 +32,28 @@ public class UserDetailsImpl implements UserDetails {
         return u;
     }
 
+    /**
+     * Rebuilds the principal from verified access-token claims without touching the database.
+     */
+    public static UserDetailsImpl fromClaims(VerifiedClaims claims) {
+        return withoutCredentials(claims.userId(), claims.username(), claims.email(), claims.role());
+    }
+
+    /**
+     * Principal for request authentication only: it has no password, and the attached {@link User}
+     * is a detached stub carrying identity fields, which is enough for id-based lookups such as
+     * deleting the user's refresh tokens.
+     */
+    static UserDetailsImpl withoutCredentials(Long id, String username, String email, String role) {
+        User stub = User.builder()
+                .id(id)
+                .username(username)
+                .email(email)
+                .role(role)
+                .build();
+        return new UserDetailsImpl(id, username, email, null, role, stub);
+    }
+
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
         // no roles implemented currently — return empty list.
@@ -46,6 +68,9 @@ public class UserDetailsImpl implements UserDetails {
         // We treat email as the principal for authentication flows; but keep username field available.
         return email;
     }
+    // getUsername() returns the email for Spring Security, so expose the actual username separately.
+    public String getAccountUsername() { return username; }
+
     public String getRole() { return role; }
     @Override
     public boolean isAccountNonExpired() { return true; }
@@ -0,0 +1,53 @@
+package com.tgp2.auth.security;
+
+import io.jsonwebtoken.Claims;
+
+import java.time.Instant;
+
+/**
+ * Claims of an access token whose signature and expiry have already been checked.
+ * Built once per request so callers never need to parse the same token twice.
+ */
+public record VerifiedClaims(String email,
+                             Long userId,
+                             String username,
+                             String role,
+                             Instant issuedAt,
+                             Instant expiresAt) {
+
+    static final String USER_ID = "uid";
+    static final String USERNAME = "username";
+    static final String ROLE = "role";
+    // compact layout; tokens issued with the long names above stay readable until they expire
+    static final String COMPACT_USERNAME = "un";
+    static final String COMPACT_ROLE = "rl";
+
+    /**
+     * Only for claims jjwt has already checked the signature of, including those carried by an
+     * {@link io.jsonwebtoken.ExpiredJwtException}.
+     */
+    public static VerifiedClaims from(Claims claims) {
+        Number userId = claims.get(USER_ID, Number.class);
+        return new VerifiedClaims(
+                claims.getSubject(),
+                userId != null ? userId.longValue() : null,
+                firstPresent(claims, COMPACT_USERNAME, USERNAME),
+                firstPresent(claims, COMPACT_ROLE, ROLE),
+                claims.getIssuedAt() != null ? claims.getIssuedAt().toInstant() : null,
+                claims.getExpiration() != null ? claims.getExpiration().toInstant() : null
+        );
+    }
+
+    private static String firstPresent(Claims claims, String name, String fallback) {
+        String value = claims.get(name, String.class);
+        return value != null ? value : claims.get(fallback, String.class);
+    }
+
+    /**
+     * Tokens issued before principal claims were added only carry the email,
+     * so they cannot be turned into a principal without a database lookup.
+     */
+    public boolean hasPrincipal() {
+        return email != null && userId != null && username != null && role != null;
+    }
+}
@@ -0,0 +1,87 @@
+package com.tgp2.auth.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Claims of recently verified access tokens, keyed by the token's {@link SignatureKey}. A hit
+ * skips the HMAC check and JSON parse entirely. Each entry expires together with its token, and
+ * the raw token is compared on every hit so a forged header/payload reusing a cached signature
+ * never matches. Caffeine stripes its read buffers per core, so concurrent hits do not contend.
+ * Hit/miss counts are published as the {@code cache.*} metrics tagged {@code cache=verifiedTokens}.
+ * <p>
+ * {@code jwt.verifiedCache.maxSize: 0} disables the cache.
+ */
+@Component
+public class VerifiedTokenCache {
+
+    static final String CACHE_NAME = "verifiedTokens";
+
+    private final Cache<SignatureKey, Entry> cache;
+
+    public VerifiedTokenCache(MeterRegistry meterRegistry,
+                              @Value("${jwt.verifiedCache.maxSize:50000}") long maxSize) {
+        if (maxSize <= 0) {
+            this.cache = null;
+            return;
+        }
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new UntilTokenExpiry())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    }
+
+    public VerifiedClaims get(String token) {
+        if (cache == null) {
+            return null;
+        }
+        SignatureKey key = SignatureKey.of(token);
+        Entry entry = key != null ? cache.getIfPresent(key) : null;
+        if (entry == null || !entry.token().equals(token)) {
+            return null;
+        }
+        // Caffeine expires lazily on its own clock; never hand out claims past exp
+        return entry.claims().expiresAt().isAfter(Instant.now()) ? entry.claims() : null;
+    }
+
+    public void put(String token, VerifiedClaims claims) {
+        if (cache == null || claims.expiresAt() == null) {
+            return;
+        }
+        SignatureKey key = SignatureKey.of(token);
+        if (key != null) {
+            cache.put(key, new Entry(token, claims));
+        }
+    }
+
+    private record Entry(String token, VerifiedClaims claims) {
+    }
+
+    private static final class UntilTokenExpiry implements Expiry<SignatureKey, Entry> {
+        @Override
+        public long expireAfterCreate(SignatureKey key, Entry entry, long currentTime) {
+            long remainingMs = entry.claims().expiresAt().toEpochMilli() - System.currentTimeMillis();
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(0, remainingMs));
+        }
+
+        @Override
+        public long expireAfterUpdate(SignatureKey key, Entry entry, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, entry, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(SignatureKey key, Entry entry, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -3,11 +3,15 @@ package com.tgp2.auth.service;
 import com.tgp2.auth.dto.*;
 import com.tgp2.auth.entity.RefreshToken;
 import com.tgp2.auth.entity.User;
+import com.tgp2.auth.exception.PasswordHashingBusyException;
 import com.tgp2.auth.exception.TokenRefreshException;
 import com.tgp2.auth.repository.UserRepository;
+import com.tgp2.auth.security.AccessTokenDenylist;
+import com.tgp2.auth.security.IssuedToken;
 import com.tgp2.auth.security.JwtUtils;
 import com.tgp2.auth.security.UserDetailsImpl;
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseCookie;
@@ -19,6 +23,7 @@ import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
+import java.sql.SQLException;
 import java.util.Map;
 
 @Service
@@ -29,15 +34,13 @@ public class AuthService {
     private final PasswordEncoder passwordEncoder;
     private final JwtUtils jwtUtils;
     private final RefreshTokenService refreshTokenService;
+    private final PasswordUpgradeService passwordUpgradeService;
+    private final AccessTokenDenylist accessTokenDenylist;
 
-    public String registerUser(SignupRequest request) {
-        if (userRepository.existsByEmail(request.getEmail())) {
-            throw new RuntimeException("Email already in use");
-        }
-        if (userRepository.existsByUsername(request.getUsername())) {
-            throw new RuntimeException("Username already in use");
-        }
+    private static final int MYSQL_DUPLICATE_ENTRY = 1062;
+    private static final String UNIQUE_VIOLATION_STATE = "23505";
 
+    public String registerUser(SignupRequest request) {
         User user = User.builder()
                 .username(request.getUsername())
                 .email(request.getEmail())
@@ -45,10 +48,42 @@ public class AuthService {
                 .role(request.getRole())
                 .build();
 
-        userRepository.save(user);
+        // single INSERT; the unique constraints on email/username reject duplicates atomically
+        try {
+            userRepository.save(user);
+        } catch (DataIntegrityViolationException ex) {
+            SQLException duplicate = findDuplicateKeyCause(ex);
+            if (duplicate == null) {
+                throw ex;
+            }
+            throw new RuntimeException(isEmailDuplicate(duplicate, request)
+                    ? "Email already in use"
+                    : "Username already in use");
+        }
         return "User registered successfully!";
     }
 
+    private static SQLException findDuplicateKeyCause(Throwable ex) {
+        for (Throwable cause = ex; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLException sql
+                    && (sql.getErrorCode() == MYSQL_DUPLICATE_ENTRY || UNIQUE_VIOLATION_STATE.equals(sql.getSQLState()))) {
+                return sql;
+            }
+        }
+        return null;
+    }
+
+    // The driver message quotes the duplicate value; only ask the DB when that is ambiguous.
+    private boolean isEmailDuplicate(SQLException duplicate, SignupRequest request) {
+        String message = String.valueOf(duplicate.getMessage());
+        boolean emailQuoted = message.contains("'" + request.getEmail() + "'");
+        boolean usernameQuoted = message.contains("'" + request.getUsername() + "'");
+        if (emailQuoted != usernameQuoted) {
+            return emailQuoted;
+        }
+        return userRepository.existsByEmail(request.getEmail());
+    }
+
     public ResponseEntity<?> loginUser(LoginRequest loginRequest) {
         try {
             Authentication authentication = authenticationManager.authenticate(
@@ -62,8 +97,11 @@ public class AuthService {
 
             UserDetailsImpl userDetails = (UserDetailsImpl) authentication.getPrincipal();
 
+            // rehash in the background if the stored hash is weaker than the current settings
+            passwordUpgradeService.upgradeIfNeeded(userDetails, loginRequest.getPassword());
+
             // Generate Access Token (JWT)
-            String jwt = jwtUtils.generateJwtToken(userDetails);
+            IssuedToken jwt = jwtUtils.issueAccessToken(userDetails);
 
             // Generate Refresh Token (save in DB too if you’re tracking it)
             RefreshToken refreshToken = refreshTokenService.createRefreshToken(userDetails.getId());
@@ -78,10 +116,12 @@ public class AuthService {
                     .build();
 
 
-            // ✅ Return only Access Token in body
+            // ✅ Return only Access Token in body, with the time to refresh it from
             JwtResponse resp = JwtResponse.builder()
-                    .accessToken(jwt)
+                    .accessToken(jwt.token())
                     .tokenType("Bearer")
+                    .expiresAt(jwt.expiresAt())
+                    .refreshAfter(jwt.refreshAfter())
                     .build();
 
             return ResponseEntity.ok()
@@ -89,6 +129,8 @@ public class AuthService {
                     .body(resp);
 
 
+        } catch (PasswordHashingBusyException ex) {
+            throw ex; // surfaced as 503 + Retry-After, not as a failed login
         } catch (Exception ex) {
             return new ResponseEntity<>("User not found.", HttpStatus.NOT_FOUND);
         }
@@ -100,18 +142,28 @@ public class AuthService {
                 .map(refreshTokenService::verifyExpiration)
                 .map(RefreshToken::getUser)
                 .map(user -> {
-                    String token = jwtUtils.generateTokenFromEmail(user.getEmail());
-                    TokenRefreshResponse response = new TokenRefreshResponse(token, requestRefreshToken);
+                    IssuedToken token = jwtUtils.issueAccessToken(user);
+                    TokenRefreshResponse response = new TokenRefreshResponse(token.token(), requestRefreshToken,
+                            token.expiresAt(), token.refreshAfter());
                     return ResponseEntity.ok(response);
                 })
                 .orElseThrow(() -> new TokenRefreshException(requestRefreshToken, "Refresh token is not in database!"));
     }
 
     public ResponseEntity<ApiResponse> logoutUser(UserDetailsImpl userDetails) {
+        return logoutUser(userDetails, null);
+    }
+
+    public ResponseEntity<ApiResponse> logoutUser(UserDetailsImpl userDetails, String accessToken) {
         if (userDetails == null) {
             return ResponseEntity.status(401)
                     .body(new ApiResponse(false, "User not authenticated"));
         }
+        // the access token stays denied until it would have expired anyway
+        if (accessToken != null) {
+            jwtUtils.parseVerifiedClaims(accessToken)
+                    .ifPresent(claims -> accessTokenDenylist.revoke(accessToken, claims.expiresAt()));
+        }
         refreshTokenService.deleteByUser(userDetails.getUser());
         return ResponseEntity.ok(new ApiResponse(true, "Logged out successfully"));
     }
@@ -1,8 +1,25 @@
 package com.tgp2.auth.service;
 
+import com.tgp2.auth.dto.FeedbackBatchResult;
+import com.tgp2.auth.dto.FeedbackPage;
+import com.tgp2.auth.dto.FeedbackReceipt;
 import com.tgp2.auth.dto.FeedbackRequest;
 import com.tgp2.auth.dto.FeedbackResponse;
 
+import java.util.List;
+
 public interface FeedbackService {
     FeedbackResponse submitFeedback(FeedbackRequest req, Long userId);
+
+    List<FeedbackBatchResult> submitFeedbackBatch(List<FeedbackRequest> reqs, Long userId);
+
+    boolean isWriteBehind();
+
+    FeedbackReceipt enqueueFeedback(FeedbackRequest req, Long userId);
+
+    FeedbackReceipt getReceipt(String trackingId, Long userId);
+
+    FeedbackPage getPaperFeedback(Long paperId, String after, int limit);
+
+    FeedbackPage getUserFeedback(Long userId, String after, int limit);
 }
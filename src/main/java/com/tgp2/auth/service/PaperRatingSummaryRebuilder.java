@@ -0,0 +1,151 @@
+package com.tgp2.auth.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Recomputes {@code paper_rating_summary} from the {@code feedback} table to repair any drift in the
+ * incrementally maintained totals. The paper id range is split into chunks of
+ * {@code feedback.ratingSummary.chunkSize} ids that are rebuilt in parallel, each in its own short
+ * transaction. A chunk first locks its summary rows in paper id order, as every feedback writer does
+ * before it touches a summary, so a concurrent submission to a paper in the chunk waits for the chunk
+ * instead of being lost or overwritten. A chunk that loses a lock conflict (deadlock, lock wait
+ * timeout) is retried like a feedback write; one that still fails is logged and left for the next
+ * run while the other chunks complete.
+ */
+@Slf4j
+@Component
+public class PaperRatingSummaryRebuilder {
+
+    static final int MAX_ATTEMPTS = 3;
+
+    private static final String RANGE_SQL = "SELECT MIN(id) AS min_id, MAX(id) AS max_id FROM papers";
+    static final String LOCK_SQL =
+            "SELECT paper_id FROM paper_rating_summary WHERE paper_id BETWEEN ? AND ? ORDER BY paper_id FOR UPDATE";
+    private static final String REBUILD_SQL = """
+            INSERT INTO paper_rating_summary
+                (paper_id, rating_count, rating_sum, rating_1, rating_2, rating_3, rating_4, rating_5)
+            SELECT paper_id, COUNT(rating), COALESCE(SUM(rating), 0),
+                COALESCE(SUM(rating = 1), 0), COALESCE(SUM(rating = 2), 0), COALESCE(SUM(rating = 3), 0),
+                COALESCE(SUM(rating = 4), 0), COALESCE(SUM(rating = 5), 0)
+            FROM feedback WHERE paper_id BETWEEN ? AND ? GROUP BY paper_id
+            ON DUPLICATE KEY UPDATE rating_count = VALUES(rating_count), rating_sum = VALUES(rating_sum),
+                rating_1 = VALUES(rating_1), rating_2 = VALUES(rating_2), rating_3 = VALUES(rating_3),
+                rating_4 = VALUES(rating_4), rating_5 = VALUES(rating_5)""";
+    private static final String DELETE_STALE_SQL = """
+            DELETE FROM paper_rating_summary WHERE paper_id BETWEEN ? AND ?
+            AND paper_id NOT IN (SELECT DISTINCT paper_id FROM feedback WHERE paper_id BETWEEN ? AND ?)""";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Timer rebuildTimer;
+    private final ExecutorService pool;
+    private final long chunkSize;
+
+    public PaperRatingSummaryRebuilder(JdbcTemplate jdbcTemplate,
+                                       TransactionTemplate transactionTemplate,
+                                       MeterRegistry meterRegistry,
+                                       @Value("${feedback.ratingSummary.chunkSize:1000}") long chunkSize,
+                                       @Value("${feedback.ratingSummary.rebuildThreads:4}") int threads) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.chunkSize = Math.max(1, chunkSize);
+        this.rebuildTimer = Timer.builder("feedback.rating_summary.rebuild")
+                .description("Time to rebuild every paper rating summary")
+                .register(meterRegistry);
+        AtomicInteger counter = new AtomicInteger();
+        this.pool = Executors.newFixedThreadPool(Math.max(1, threads), runnable -> {
+            Thread thread = new Thread(runnable, "rating-summary-rebuild-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Scheduled(cron = "${feedback.ratingSummary.rebuildCron:-}")
+    public void scheduledRebuild() {
+        Timer.Sample sample = Timer.start();
+        int chunks = rebuild();
+        sample.stop(rebuildTimer);
+        log.info("Rebuilt paper rating summaries in {} chunks", chunks);
+    }
+
+    /**
+     * Rebuilds every summary and returns the number of chunks rebuilt; failed chunks are logged and
+     * not counted.
+     */
+    public int rebuild() {
+        Map<String, Object> range = jdbcTemplate.queryForMap(RANGE_SQL);
+        if (range.get("min_id") == null) {
+            return 0;
+        }
+        long min = ((Number) range.get("min_id")).longValue();
+        long max = ((Number) range.get("max_id")).longValue();
+
+        List<Future<?>> chunks = new ArrayList<>();
+        for (long from = min; from <= max; from += chunkSize) {
+            long to = Math.min(max, from + chunkSize - 1);
+            long chunkFrom = from;
+            chunks.add(pool.submit(() -> rebuildChunk(chunkFrom, to)));
+        }
+        int rebuilt = 0;
+        for (Future<?> chunk : chunks) {
+            if (await(chunk)) {
+                rebuilt++;
+            }
+        }
+        return rebuilt;
+    }
+
+    private void rebuildChunk(long from, long to) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    jdbcTemplate.queryForList(LOCK_SQL, Long.class, from, to);
+                    jdbcTemplate.update(REBUILD_SQL, from, to);
+                    jdbcTemplate.update(DELETE_STALE_SQL, from, to, from, to);
+                });
+                return;
+            } catch (PessimisticLockingFailureException e) {
+                if (attempt == MAX_ATTEMPTS) {
+                    throw e;
+                }
+                log.debug("Rating summary chunk {}-{} lost a lock conflict, retrying (attempt {})", from, to, attempt, e);
+            }
+        }
+    }
+
+    private static boolean await(Future<?> future) {
+        try {
+            future.get();
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while rebuilding rating summaries", e);
+        } catch (ExecutionException e) {
+            log.warn("Rating summary chunk rebuild failed, left for the next run", e.getCause());
+            return false;
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        pool.shutdownNow();
+    }
+}
@@ -1,19 +1,26 @@
 package com.tgp2.auth.service;
 
 
+import com.tgp2.auth.dto.PaperRatingsResponse;
 import com.tgp2.auth.entity.Paper;
+import com.tgp2.auth.entity.PaperRatingSummary;
 import com.tgp2.auth.entity.User;
+import com.tgp2.auth.exception.ResourceNotFoundException;
+import com.tgp2.auth.repository.PaperRatingSummaryRepository;
 import com.tgp2.auth.repository.PaperRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 @Service
 @RequiredArgsConstructor
 public class PaperService {
 
     private final PaperRepository paperRepository;
+    private final PaperRatingSummaryRepository ratingSummaryRepository;
 
     public Paper createPaper(Paper paper, User user) {
         paper.setUser(user);
@@ -34,4 +41,28 @@ public class PaperService {
 
         paperRepository.delete(paper);
     }
-}
\ No newline at end of file
+
+    // one primary-key read of the maintained summary; the paper is only checked when there is none
+    public PaperRatingsResponse getRatings(Long paperId) {
+        PaperRatingSummary summary = ratingSummaryRepository.findById(paperId).orElse(null);
+        if (summary == null) {
+            if (!paperRepository.existsById(paperId)) {
+                throw new ResourceNotFoundException("Paper not found: " + paperId);
+            }
+            summary = PaperRatingSummary.builder().paperId(paperId).build();
+        }
+
+        Map<Integer, Long> histogram = new LinkedHashMap<>();
+        histogram.put(1, summary.getRating1());
+        histogram.put(2, summary.getRating2());
+        histogram.put(3, summary.getRating3());
+        histogram.put(4, summary.getRating4());
+        histogram.put(5, summary.getRating5());
+        return PaperRatingsResponse.builder()
+                .paperId(paperId)
+                .count(summary.getRatingCount())
+                .average(summary.getRatingCount() > 0 ? (double) summary.getRatingSum() / summary.getRatingCount() : null)
+                .histogram(histogram)
+                .build();
+    }
+}
@@ -0,0 +1,56 @@
+package com.tgp2.auth.service;
+
+import com.tgp2.auth.repository.UserRepository;
+import com.tgp2.auth.security.BoundedPasswordEncoder;
+import com.tgp2.auth.security.PasswordHashingExecutor;
+import com.tgp2.auth.security.UserDetailsCache;
+import com.tgp2.auth.security.UserDetailsImpl;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+/**
+ * Transparently rehashes a password after a successful login when the stored hash uses an
+ * older algorithm or a lower cost than the current one. The rehash and the write run on the
+ * password-hashing pool, so they never add latency to the login response; if the pool is
+ * saturated the upgrade is simply retried on a later login.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class PasswordUpgradeService {
+
+    private final BoundedPasswordEncoder passwordEncoder;
+    private final PasswordHashingExecutor passwordHashingExecutor;
+    private final UserRepository userRepository;
+    private final UserDetailsCache userDetailsCache;
+    private final MeterRegistry meterRegistry;
+
+    public void upgradeIfNeeded(UserDetailsImpl user, String rawPassword) {
+        String currentHash = user.getPassword();
+        if (currentHash == null || !passwordEncoder.upgradeEncoding(currentHash)) {
+            return;
+        }
+
+        boolean queued = passwordHashingExecutor.trySubmit(() -> {
+            try {
+                String newHash = passwordEncoder.unbounded().encode(rawPassword);
+                int updated = userRepository.updatePasswordHash(user.getId(), currentHash, newHash);
+                // bulk JPQL update skips entity listeners, so evict explicitly
+                userDetailsCache.evict(user.getId(), user.getEmail());
+                count(updated == 1 ? "upgraded" : "stale");
+            } catch (RuntimeException ex) {
+                count("failed");
+                log.warn("Password hash upgrade failed for user {}", user.getId(), ex);
+            }
+        });
+        if (!queued) {
+            count("deferred");
+        }
+    }
+
+    private void count(String result) {
+        meterRegistry.counter("auth.password.upgrades", "result", result).increment();
+    }
+}
@@ -0,0 +1,84 @@
+package com.tgp2.auth.service;
+
+import com.tgp2.auth.repository.RefreshTokenRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+
+/**
+ * Periodically deletes expired refresh tokens in bounded batches. Each batch is its own short
+ * transaction and batches are separated by a pause, so the purge never holds long locks on
+ * refresh_tokens while logins keep inserting into it.
+ */
+@Slf4j
+@Component
+public class RefreshTokenPurger {
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final Counter purgedRows;
+    private final Timer batchTimer;
+
+    @Value("${auth.refreshTokenPurge.enabled:true}")
+    private boolean enabled;
+
+    @Value("${auth.refreshTokenPurge.batchSize:500}")
+    private int batchSize;
+
+    @Value("${auth.refreshTokenPurge.pauseMs:200}")
+    private long pauseMs;
+
+    @Value("${auth.refreshTokenPurge.maxBatchesPerRun:200}")
+    private int maxBatchesPerRun;
+
+    public RefreshTokenPurger(RefreshTokenRepository refreshTokenRepository, MeterRegistry meterRegistry) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.purgedRows = Counter.builder("auth.refresh_tokens.purged")
+                .description("Expired refresh tokens deleted by the background purger")
+                .register(meterRegistry);
+        this.batchTimer = Timer.builder("auth.refresh_tokens.purge.batch")
+                .description("Time per purge batch")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${auth.refreshTokenPurge.intervalMs:300000}",
+            initialDelayString = "${auth.refreshTokenPurge.intervalMs:300000}")
+    public void purgeExpired() {
+        if (!enabled) {
+            return;
+        }
+        Instant cutoff = Instant.now();
+        long total = 0;
+        int batches = 0;
+        while (batches < maxBatchesPerRun) {
+            Timer.Sample sample = Timer.start();
+            int deleted = refreshTokenRepository.deleteExpiredBatch(cutoff, batchSize);
+            sample.stop(batchTimer);
+            purgedRows.increment(deleted);
+            total += deleted;
+            batches++;
+
+            if (deleted < batchSize || !pause()) {
+                break;
+            }
+        }
+        if (total > 0) {
+            log.info("Purged {} expired refresh tokens in {} batches", total, batches);
+        }
+    }
+
+    private boolean pause() {
+        try {
+            Thread.sleep(pauseMs);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
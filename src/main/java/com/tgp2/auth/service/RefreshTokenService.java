@@ -1,55 +1,98 @@
 package com.tgp2.auth.service;
 
+import com.tgp2.auth.dto.SessionResponse;
 import com.tgp2.auth.entity.RefreshToken;
 import com.tgp2.auth.entity.User;
 import com.tgp2.auth.repository.RefreshTokenRepository;
 import com.tgp2.auth.repository.UserRepository;
 import com.tgp2.auth.exception.TokenRefreshException;
+import com.tgp2.auth.security.RefreshTokenCodec;
+import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.transaction.Transactional;
-import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
 import java.util.Optional;
-import java.util.UUID;
 
-@RequiredArgsConstructor
 @Service
 public class RefreshTokenService {
 
     private final RefreshTokenRepository refreshTokenRepository;
     private final UserRepository userRepository;
+    private final RefreshTokenCodec refreshTokenCodec;
+    // identical refresh calls arriving together (several tabs, client retries) share one query;
+    // they share an immutable copy of the row, never the entity
+    private final SingleFlight<String, Optional<StoredToken>> tokenLookups;
+
+    public RefreshTokenService(RefreshTokenRepository refreshTokenRepository,
+                               UserRepository userRepository,
+                               RefreshTokenCodec refreshTokenCodec,
+                               MeterRegistry meterRegistry) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.userRepository = userRepository;
+        this.refreshTokenCodec = refreshTokenCodec;
+        this.tokenLookups = new SingleFlight<>(meterRegistry, "refreshToken");
+    }
 
     @Value("${jwt.refreshExpirationMs}")
     private Long refreshTokenDurationMs;
 
+    @Value("${auth.session.maxPerUser:5}")
+    private int maxSessionsPerUser;
+
+    // Garbage, forged and expired tokens are rejected in memory; only valid ones cost a query.
     public Optional<RefreshToken> findByToken(String token) {
-        return refreshTokenRepository.findByToken(token);
+        Optional<Instant> expiry = refreshTokenCodec.verify(token);
+        if (expiry.isEmpty()) {
+            return Optional.empty();
+        }
+        if (expiry.get().isBefore(Instant.now())) {
+            throw new TokenRefreshException(token, "Refresh token was expired. Please sign in again.");
+        }
+        String hash = refreshTokenCodec.hash(token);
+        return tokenLookups.execute(hash, () -> refreshTokenRepository.findByTokenHash(hash).map(StoredToken::of))
+                .map(stored -> stored.toRefreshToken(token));
     }
 
+    @Transactional
     public RefreshToken createRefreshToken(Long userId) {
         RefreshToken refreshToken = new RefreshToken();
 
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new RuntimeException("User not found with id: " + userId));
-
-        refreshToken.setUser(user);
-        refreshToken.setExpiryDate(Instant.now().plusMillis(refreshTokenDurationMs));
-        refreshToken.setToken(UUID.randomUUID().toString());
+        // the caller has just authenticated this user, so a reference is enough: no SELECT
+        refreshToken.setUser(userRepository.getReferenceById(userId));
+        // the token embeds its expiry with second precision, keep the row consistent with it
+        Instant expiry = Instant.now().plusMillis(refreshTokenDurationMs).truncatedTo(ChronoUnit.SECONDS);
+        String token = refreshTokenCodec.issue(expiry);
+        refreshToken.setExpiryDate(expiry);
+        refreshToken.setToken(token);
+        refreshToken.setTokenHash(refreshTokenCodec.hash(token));
 
         refreshToken = refreshTokenRepository.save(refreshToken);
+
+        // enforce the per-user cap in the same transaction: the new token always has the latest
+        // expiry, so trimming to the newest N evicts the oldest sessions (expired ones first)
+        if (maxSessionsPerUser > 0) {
+            refreshTokenRepository.trimToNewest(userId, maxSessionsPerUser);
+        }
         return refreshToken;
     }
 
+    public List<SessionResponse> listActiveSessions(Long userId) {
+        return refreshTokenRepository.findActiveSessions(userId, Instant.now());
+    }
+
     public RefreshToken verifyExpiration(RefreshToken token) {
         if (token.getExpiryDate().isBefore(Instant.now())) {
-            refreshTokenRepository.delete(token);
+            refreshTokenRepository.deleteById(token.getId());
             throw new TokenRefreshException(token.getToken(), "Refresh token was expired. Please sign in again.");
         }
         return token;
     }
 
+    @Transactional
     public int deleteByUserId(Long userId) {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new RuntimeException("User not found with id: " + userId));
@@ -59,4 +102,26 @@ public class RefreshTokenService {
     public void deleteByUser(User user) {
         refreshTokenRepository.deleteByUser(user);
     }
+
+    // what a refresh needs from the row and its user; each caller gets its own detached copies
+    private record StoredToken(Long id, String tokenHash, Instant expiryDate,
+                               Long userId, String username, String email, String role) {
+
+        static StoredToken of(RefreshToken row) {
+            User user = row.getUser();
+            return new StoredToken(row.getId(), row.getTokenHash(), row.getExpiryDate(),
+                    user.getId(), user.getUsername(), user.getEmail(), user.getRole());
+        }
+
+        RefreshToken toRefreshToken(String token) {
+            User user = User.builder().id(userId).username(username).email(email).role(role).build();
+            return RefreshToken.builder()
+                    .id(id)
+                    .token(token)
+                    .tokenHash(tokenHash)
+                    .expiryDate(expiryDate)
+                    .user(user)
+                    .build();
+        }
+    }
 }
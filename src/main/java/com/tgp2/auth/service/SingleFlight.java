@@ -0,0 +1,70 @@
+package com.tgp2.auth.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent loads of the same key: the first caller runs the loader, callers arriving
+ * while it is in flight wait for and share its result (or exception). Nothing is cached once the
+ * load completes. Counted as {@code auth.singleflight.calls{name, role=leader|follower}}; the
+ * follower share is the coalescing rate.
+ */
+final class SingleFlight<K, V> {
+
+    private final ConcurrentHashMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final Counter leaders;
+    private final Counter followers;
+
+    SingleFlight(MeterRegistry meterRegistry, String name) {
+        this.leaders = calls(meterRegistry, name, "leader");
+        this.followers = calls(meterRegistry, name, "follower");
+    }
+
+    V execute(K key, Supplier<V> loader) {
+        CompletableFuture<V> mine = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, mine);
+        if (existing != null) {
+            followers.increment();
+            return await(existing);
+        }
+        leaders.increment();
+        try {
+            V value = loader.get();
+            mine.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    private static <V> V await(CompletableFuture<V> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            // rethrow the leader's exception as is, so followers fail exactly like it did
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+
+    private static Counter calls(MeterRegistry meterRegistry, String name, String role) {
+        return Counter.builder("auth.singleflight.calls")
+                .description("Lookups that ran the query (leader) or shared an in-flight one (follower)")
+                .tag("name", name)
+                .tag("role", role)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,114 @@
+package com.tgp2.auth.service;
+
+import com.tgp2.auth.dto.IntrospectionResponse;
+import com.tgp2.auth.security.AccessTokenDenylist;
+import com.tgp2.auth.security.JwtUtils;
+import com.tgp2.auth.security.UserDetailsImpl;
+import com.tgp2.auth.security.VerifiedClaims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Token status for API gateways. Answers from the signature, the claims and the in-memory
+ * denylist only; the user table is never read.
+ * <p>
+ * A caller may introspect its own tokens. Gateways introspect tokens of any user, so their
+ * accounts are configured by operators; the role column is chosen at signup and cannot grant this.
+ */
+@Service
+@RequiredArgsConstructor
+public class TokenIntrospectionService {
+
+    static final String ACTIVE = "active";
+    static final String EXPIRED = "expired";
+    static final String REVOKED = "revoked";
+    static final String INVALID = "invalid";
+
+    private final JwtUtils jwtUtils;
+    private final AccessTokenDenylist denylist;
+
+    @Value("${auth.introspection.maxBatch:500}")
+    private int maxBatch;
+
+    @Value("${auth.introspection.allowedUserIds:}")
+    private Set<Long> allowedUserIds = Set.of();
+
+    public IntrospectionResponse introspect(UserDetailsImpl caller, String token) {
+        IntrospectionResponse response = introspect(token);
+        requireAccess(caller, List.of(response));
+        return response;
+    }
+
+    public List<IntrospectionResponse> introspectAll(UserDetailsImpl caller, List<String> tokens) {
+        List<IntrospectionResponse> responses = introspectAll(tokens);
+        requireAccess(caller, responses);
+        return responses;
+    }
+
+    IntrospectionResponse introspect(String token) {
+        try {
+            VerifiedClaims claims = jwtUtils.verifyToken(token);
+            return denylist.isRevoked(token) ? response(REVOKED, claims) : response(ACTIVE, claims);
+        } catch (ExpiredJwtException e) {
+            // thrown only after the signature checked out, so the claims are genuine
+            return response(EXPIRED, VerifiedClaims.from(e.getClaims()));
+        } catch (JwtException | IllegalArgumentException e) {
+            return IntrospectionResponse.builder().active(false).status(INVALID).build();
+        }
+    }
+
+    /**
+     * One result per token, in request order. Gateways coalescing checks often repeat a token
+     * within a batch, so each distinct token is verified once.
+     */
+    List<IntrospectionResponse> introspectAll(List<String> tokens) {
+        if (tokens.size() > maxBatch) {
+            throw new RuntimeException("At most " + maxBatch + " tokens per introspection request");
+        }
+        Map<String, IntrospectionResponse> results = new HashMap<>();
+        return tokens.stream()
+                .map(token -> results.computeIfAbsent(String.valueOf(token), t -> introspect(token)))
+                .toList();
+    }
+
+    // a token without genuine claims has no owner, so only a gateway may learn that it is invalid
+    private void requireAccess(UserDetailsImpl caller, List<IntrospectionResponse> responses) {
+        if (caller == null || caller.getId() == null) {
+            throw new AccessDeniedException("Not allowed to introspect tokens");
+        }
+        if (allowedUserIds.contains(caller.getId())) {
+            return;
+        }
+        for (IntrospectionResponse response : responses) {
+            boolean own = response.getUid() != null
+                    ? response.getUid().equals(caller.getId())
+                    : response.getSub() != null && Objects.equals(response.getSub(), caller.getEmail());
+            if (!own) {
+                throw new AccessDeniedException("Not allowed to introspect another user's token");
+            }
+        }
+    }
+
+    private static IntrospectionResponse response(String status, VerifiedClaims claims) {
+        return IntrospectionResponse.builder()
+                .active(ACTIVE.equals(status))
+                .status(status)
+                .sub(claims.email())
+                .uid(claims.userId())
+                .username(claims.username())
+                .role(claims.role())
+                .iat(claims.issuedAt() != null ? claims.issuedAt().getEpochSecond() : null)
+                .exp(claims.expiresAt() != null ? claims.expiresAt().getEpochSecond() : null)
+                .build();
+    }
+}
@@ -2,22 +2,67 @@ package com.tgp2.auth.service;
 
 import com.tgp2.auth.entity.User;
 import com.tgp2.auth.repository.UserRepository;
+import com.tgp2.auth.security.CachedUser;
+import com.tgp2.auth.security.UserDetailsCache;
 import com.tgp2.auth.security.UserDetailsImpl;
-import lombok.RequiredArgsConstructor;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.security.core.userdetails.*;
 import org.springframework.stereotype.Service;
 
-@RequiredArgsConstructor
+import java.util.Optional;
+
 @Service
 public class UserDetailsServiceImpl implements UserDetailsService {
 
     private final UserRepository userRepository;
+    private final UserDetailsCache userDetailsCache;
+    // concurrent lookups of one email (parallel tabs, retries) share a single query; they share an
+    // immutable copy of the row, never the entity
+    private final SingleFlight<String, Optional<StoredUser>> userLookups;
+
+    public UserDetailsServiceImpl(UserRepository userRepository,
+                                  UserDetailsCache userDetailsCache,
+                                  MeterRegistry meterRegistry) {
+        this.userRepository = userRepository;
+        this.userDetailsCache = userDetailsCache;
+        this.userLookups = new SingleFlight<>(meterRegistry, "userByEmail");
+    }
 
     // load by email (used as principal)
+    // Always reads the DB: the authentication manager needs the current password hash.
     @Override
     public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
-        User user = userRepository.findByEmail(email)
+        StoredUser user = findByEmail(email)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found with email: " + email));
-        return UserDetailsImpl.build(user);
+        // each caller gets its own principal and its own detached User
+        return UserDetailsImpl.build(user.toUser());
+    }
+
+    // Principal for an already-authenticated request; served from the cache when possible.
+    public UserDetailsImpl loadPrincipalByEmail(String email) throws UsernameNotFoundException {
+        CachedUser cached = userDetailsCache.get(email).orElseGet(() -> {
+            StoredUser user = findByEmail(email)
+                    .orElseThrow(() -> new UsernameNotFoundException("User not found with email: " + email));
+            CachedUser loaded = new CachedUser(user.id(), user.username(), user.email(), user.role());
+            userDetailsCache.put(loaded);
+            return loaded;
+        });
+        return cached.toUserDetails();
+    }
+
+    private Optional<StoredUser> findByEmail(String email) {
+        return userLookups.execute(email, () -> userRepository.findByEmail(email).map(StoredUser::of));
+    }
+
+    // the fields authentication reads, including the password hash the login check needs
+    private record StoredUser(Long id, String username, String email, String password, String role) {
+
+        static StoredUser of(User user) {
+            return new StoredUser(user.getId(), user.getUsername(), user.getEmail(), user.getPassword(), user.getRole());
+        }
+
+        User toUser() {
+            return User.builder().id(id).username(username).email(email).password(password).role(role).build();
+        }
     }
 }
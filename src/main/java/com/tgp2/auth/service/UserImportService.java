@@ -0,0 +1,318 @@
+package com.tgp2.auth.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tgp2.auth.dto.SignupRequest;
+import com.tgp2.auth.dto.UserImportResult;
+import com.tgp2.auth.security.BoundedPasswordEncoder;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Streams a CSV or NDJSON upload of users into the users table.
+ * <p>
+ * The body is read line by line and processed in chunks of {@code auth.userImport.batchSize}, so
+ * memory use does not depend on the upload size. For each chunk, known duplicates are found with one
+ * indexed query, passwords are hashed in parallel on a bounded pool, and the rows are written with a
+ * single JDBC batch in one transaction. {@code users.id} is IDENTITY, which stops Hibernate from
+ * batching inserts, so this path uses JDBC directly. One result line per input row is written and
+ * flushed after each chunk.
+ * <p>
+ * Rows are validated (required fields, column lengths, the 72-byte bcrypt password limit) before
+ * they are batched, and a malformed CSV header is rejected by {@link #open} before any output, so
+ * the caller can still answer with an error status.
+ */
+@Slf4j
+@Service
+public class UserImportService {
+
+    public enum Format { CSV, NDJSON }
+
+    static final String CREATED = "CREATED";
+    static final String DUPLICATE = "DUPLICATE";
+    static final String INVALID = "INVALID";
+    static final String FAILED = "FAILED";
+
+    // a duplicate email/username is a no-op; unlike INSERT IGNORE, any other error still fails
+    private static final String INSERT_SQL =
+            "INSERT INTO users (username, email, password, role) VALUES (?, ?, ?, ?) ON DUPLICATE KEY UPDATE id = id";
+    private static final String EXISTING_SQL =
+            "SELECT username, email FROM users WHERE email IN (:emails) OR username IN (:usernames)";
+    private static final String WRITTEN_SQL = "SELECT email, password FROM users WHERE email IN (:emails)";
+    private static final List<String> CSV_COLUMNS = List.of("username", "email", "password", "role");
+    private static final int MAX_COLUMN_LENGTH = 255; // users.username, email and role
+    private static final int MAX_PASSWORD_BYTES = 72; // bcrypt rejects longer passwords
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final BoundedPasswordEncoder passwordEncoder;
+    private final ObjectMapper objectMapper;
+    private final int batchSize;
+    private final ThreadPoolExecutor hashingPool;
+
+    public UserImportService(JdbcTemplate jdbcTemplate,
+                             NamedParameterJdbcTemplate namedJdbcTemplate,
+                             TransactionTemplate transactionTemplate,
+                             BoundedPasswordEncoder passwordEncoder,
+                             ObjectMapper objectMapper,
+                             @Value("${auth.userImport.batchSize:500}") int batchSize,
+                             @Value("${auth.userImport.hashThreads:0}") int hashThreads) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = namedJdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.passwordEncoder = passwordEncoder;
+        this.objectMapper = objectMapper;
+        this.batchSize = batchSize;
+
+        // separate from the login hashing pool so an import never starves interactive logins;
+        // caller-runs makes the importing thread help out instead of queueing without bound
+        int threads = hashThreads > 0 ? hashThreads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        AtomicInteger counter = new AtomicInteger();
+        this.hashingPool = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(batchSize), runnable -> {
+                    Thread thread = new Thread(runnable, "user-import-hash-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    public void importUsers(InputStream body, Format format, OutputStream out) throws IOException {
+        importUsers(open(body, format), out);
+    }
+
+    /**
+     * Starts reading an upload; for CSV this consumes the header row.
+     *
+     * @throws IllegalArgumentException if the CSV header is missing or lacks a required column
+     */
+    public ImportSource open(InputStream body, Format format) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+        if (format == Format.NDJSON) {
+            return new ImportSource(reader, format, null, 0);
+        }
+        long lineNo = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNo++;
+            if (StringUtils.hasText(line)) {
+                return new ImportSource(reader, format, parseCsvHeader(line), lineNo);
+            }
+        }
+        throw new IllegalArgumentException("CSV header must contain " + String.join(",", CSV_COLUMNS));
+    }
+
+    public void importUsers(ImportSource source, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+
+        long lineNo = source.lineNo();
+        List<ImportRow> chunk = new ArrayList<>(batchSize);
+        String line;
+        while ((line = source.reader().readLine()) != null) {
+            lineNo++;
+            if (!StringUtils.hasText(line)) {
+                continue;
+            }
+            chunk.add(parseRow(lineNo, line, source.format(), source.csvIndex()));
+            if (chunk.size() == batchSize) {
+                writeResults(processChunk(chunk), writer);
+                chunk = new ArrayList<>(batchSize);
+            }
+        }
+        if (!chunk.isEmpty()) {
+            writeResults(processChunk(chunk), writer);
+        }
+        writer.flush();
+    }
+
+    private List<UserImportResult> processChunk(List<ImportRow> chunk) {
+        List<UserImportResult> results = new ArrayList<>(chunk.size());
+        List<ImportRow> candidates = new ArrayList<>(chunk.size());
+        Set<String> seenEmails = new HashSet<>();
+        Set<String> seenUsernames = new HashSet<>();
+
+        for (ImportRow row : chunk) {
+            if (row.error != null) {
+                results.add(row.result(INVALID, row.error));
+            } else if (!seenEmails.add(row.request.getEmail()) || !seenUsernames.add(row.request.getUsername())) {
+                results.add(row.result(DUPLICATE, "Duplicate within upload"));
+            } else {
+                candidates.add(row);
+            }
+        }
+        if (candidates.isEmpty()) {
+            return results;
+        }
+
+        // one indexed lookup per chunk so known duplicates are neither hashed nor inserted
+        Set<String> existingEmails = new HashSet<>();
+        Set<String> existingUsernames = new HashSet<>();
+        namedJdbcTemplate.query(EXISTING_SQL, new MapSqlParameterSource()
+                        .addValue("emails", seenEmails)
+                        .addValue("usernames", seenUsernames),
+                rs -> {
+                    existingUsernames.add(rs.getString("username"));
+                    existingEmails.add(rs.getString("email"));
+                });
+
+        List<ImportRow> toInsert = new ArrayList<>(candidates.size());
+        for (ImportRow row : candidates) {
+            if (existingEmails.contains(row.request.getEmail())) {
+                results.add(row.result(DUPLICATE, "Email already in use"));
+            } else if (existingUsernames.contains(row.request.getUsername())) {
+                results.add(row.result(DUPLICATE, "Username already in use"));
+            } else {
+                toInsert.add(row);
+            }
+        }
+        if (toInsert.isEmpty()) {
+            return results;
+        }
+
+        List<Object[]> batchArgs = hashPasswords(toInsert);
+        Set<String> written;
+        try {
+            written = transactionTemplate.execute(status -> {
+                jdbcTemplate.batchUpdate(INSERT_SQL, batchArgs);
+                return writtenEmails(batchArgs);
+            });
+        } catch (DataAccessException e) {
+            log.warn("User import chunk of {} rows failed: {}", toInsert.size(), e.getMessage());
+            toInsert.forEach(row -> results.add(row.result(FAILED, "Row could not be saved")));
+            return results;
+        }
+
+        for (ImportRow row : toInsert) {
+            results.add(written.contains(row.request.getEmail())
+                    ? row.result(CREATED, null)
+                    : row.result(DUPLICATE, "Email or username already in use"));
+        }
+        return results;
+    }
+
+    // Update counts cannot tell an insert from a duplicate no-op once the driver rewrites the batch
+    // or reports found rows, so a row counts as ours only if the stored hash is the one we wrote;
+    // a concurrent import of the same email or username leaves a different (salted) hash.
+    private Set<String> writtenEmails(List<Object[]> batchArgs) {
+        Map<String, String> hashes = new HashMap<>();
+        batchArgs.forEach(args -> hashes.put((String) args[1], (String) args[2]));
+        Set<String> written = new HashSet<>();
+        namedJdbcTemplate.query(WRITTEN_SQL, new MapSqlParameterSource("emails", hashes.keySet()), rs -> {
+            String email = rs.getString("email");
+            if (rs.getString("password").equals(hashes.get(email))) {
+                written.add(email);
+            }
+        });
+        return written;
+    }
+
+    private List<Object[]> hashPasswords(List<ImportRow> rows) {
+        List<Future<String>> hashes = new ArrayList<>(rows.size());
+        for (ImportRow row : rows) {
+            String raw = row.request.getPassword();
+            hashes.add(hashingPool.submit(() -> passwordEncoder.unbounded().encode(raw)));
+        }
+        List<Object[]> batchArgs = new ArrayList<>(rows.size());
+        for (int i = 0; i < rows.size(); i++) {
+            SignupRequest req = rows.get(i).request;
+            batchArgs.add(new Object[]{req.getUsername(), req.getEmail(), await(hashes.get(i)), req.getRole()});
+        }
+        return batchArgs;
+    }
+
+    private static String await(Future<String> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while hashing imported passwords", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Password hashing failed during import", e.getCause());
+        }
+    }
+
+    private ImportRow parseRow(long lineNo, String line, Format format, Map<String, Integer> csvIndex) {
+        SignupRequest request;
+        try {
+            request = format == Format.CSV
+                    ? fromCsv(line, csvIndex)
+                    : objectMapper.readValue(line, SignupRequest.class);
+        } catch (IOException | RuntimeException e) {
+            return new ImportRow(lineNo, null, "Unparseable row");
+        }
+        return new ImportRow(lineNo, request, validate(request));
+    }
+
+    private static String validate(SignupRequest request) {
+        if (!StringUtils.hasText(request.getUsername())) return "username is required";
+        if (!StringUtils.hasText(request.getEmail()) || !request.getEmail().contains("@")) return "valid email is required";
+        if (!StringUtils.hasText(request.getPassword())) return "password is required";
+        if (!StringUtils.hasText(request.getRole())) return "role is required";
+        if (request.getUsername().length() > MAX_COLUMN_LENGTH) return "username is too long";
+        if (request.getEmail().length() > MAX_COLUMN_LENGTH) return "email is too long";
+        if (request.getRole().length() > MAX_COLUMN_LENGTH) return "role is too long";
+        if (request.getPassword().getBytes(StandardCharsets.UTF_8).length > MAX_PASSWORD_BYTES) return "password is too long";
+        return null;
+    }
+
+    // Simple comma-separated values; fields may not contain commas or quotes.
+    private static Map<String, Integer> parseCsvHeader(String header) {
+        String[] columns = header.split(",", -1);
+        Map<String, Integer> index = new HashMap<>();
+        for (int i = 0; i < columns.length; i++) {
+            index.put(columns[i].trim().toLowerCase(Locale.ROOT), i);
+        }
+        if (!index.keySet().containsAll(CSV_COLUMNS)) {
+            throw new IllegalArgumentException("CSV header must contain " + String.join(",", CSV_COLUMNS));
+        }
+        return index;
+    }
+
+    private static SignupRequest fromCsv(String line, Map<String, Integer> index) {
+        String[] fields = line.split(",", -1);
+        return new SignupRequest(
+                fields[index.get("username")].trim(),
+                fields[index.get("email")].trim(),
+                fields[index.get("password")],
+                fields[index.get("role")].trim());
+    }
+
+    private void writeResults(List<UserImportResult> results, Writer writer) throws IOException {
+        results.sort(Comparator.comparingLong(UserImportResult::getLine));
+        for (UserImportResult result : results) {
+            writer.write(objectMapper.writeValueAsString(result));
+            writer.write('\n');
+        }
+        writer.flush();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        hashingPool.shutdown();
+    }
+
+    /**
+     * An upload positioned at its first data row.
+     */
+    public record ImportSource(BufferedReader reader, Format format, Map<String, Integer> csvIndex, long lineNo) {
+    }
+
+    private record ImportRow(long line, SignupRequest request, String error) {
+        UserImportResult result(String status, String message) {
+            return new UserImportResult(line, request != null ? request.getEmail() : null, status, message);
+        }
+    }
+}
@@ -1,93 +1,291 @@
 package com.tgp2.auth.service.impl;
 
+import com.tgp2.auth.dto.FeedbackBatchResult;
+import com.tgp2.auth.dto.FeedbackPage;
+import com.tgp2.auth.dto.FeedbackReceipt;
 import com.tgp2.auth.dto.FeedbackRequest;
 import com.tgp2.auth.dto.FeedbackResponse;
-import com.tgp2.auth.entity.Feedback;
-import com.tgp2.auth.entity.Paper;
-import com.tgp2.auth.entity.User;
-import com.tgp2.auth.exception.DuplicateResponseException;
 import com.tgp2.auth.exception.ResourceNotFoundException;
 import com.tgp2.auth.repository.FeedbackRepository;
+import com.tgp2.auth.repository.FeedbackRepository.FeedbackView;
 import com.tgp2.auth.repository.PaperRepository;
 import com.tgp2.auth.repository.UserRepository;
 import com.tgp2.auth.service.FeedbackService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
 import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.*;
 
+/**
+ * Feedback is upserted on the {@code (paper_id, user_id)} unique constraint through
+ * {@link FeedbackWriter}, which also keeps {@code paper_rating_summary} current, so concurrent
+ * submissions by the same user for the same paper cannot create duplicate rows. The user and paper
+ * are not loaded: the foreign keys reject unknown ids, and only then is it worth asking which one
+ * was missing.
+ * <p>
+ * A batch is validated in full before anything is written: per-item checks, duplicates within the
+ * batch, and one indexed lookup for unknown papers. The remaining items are upserted as one JDBC
+ * batch in one transaction, and every item gets its own result.
+ * <p>
+ * With {@code feedback.ingest.mode: write-behind} single submissions are validated here and then
+ * handed to {@link FeedbackWriteBehindQueue}, which commits them in groups.
+ * <p>
+ * Listings are keyset-paginated, newest first, on {@code (createdAt, id)}: the cursor is the last
+ * row of the previous page, so every page is an index range scan of {@code limit + 1} rows however
+ * deep the client has paged. Rows are read as scalar projections, never as entities.
+ */
 @Service
 @RequiredArgsConstructor
 public class FeedbackServiceImpl implements FeedbackService {
 
+    private static final String EXISTING_PAPERS_SQL = "SELECT id FROM papers WHERE id IN (:ids)";
+
+    static final String SAVED = "SAVED";
+    static final String INVALID = "INVALID";
+    static final String NOT_FOUND = "NOT_FOUND";
+
+    private final FeedbackWriter feedbackWriter;
     private final FeedbackRepository feedbackRepository;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
     private final UserRepository userRepository;
     private final PaperRepository paperRepository;
 
+    @Value("${feedback.batch.maxSize:200}")
+    private int maxBatchSize = 200;
+
+    @Value("${feedback.page.maxSize:100}")
+    private int maxPageSize = 100;
+
+    // present only in write-behind mode
+    @Autowired(required = false)
+    private FeedbackWriteBehindQueue writeBehindQueue;
+
     @Override
     public FeedbackResponse submitFeedback(FeedbackRequest req, Long userId) {
-        // validate user and paper existence
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new ResourceNotFoundException("User not found: " + userId));
-
-        Paper paper = paperRepository.findById(req.getPaperId())
-                .orElseThrow(() -> new ResourceNotFoundException("Paper not found: " + req.getPaperId()));
+        // business validations first, they need no database access
+        String error = validate(req);
+        if (error != null) {
+            throw new IllegalArgumentException(error);
+        }
 
-        // business validations
-        if (req.getRating() == null || req.getRating() < 1 || req.getRating() > 5) {
-            throw new IllegalArgumentException("Rating must be between 1 and 5");
+        LocalDateTime now = LocalDateTime.now();
+        Object[] args = upsertArgs(req, userId, now);
+        FeedbackWriter.Written written;
+        try {
+            written = feedbackWriter.write(args);
+        } catch (DataIntegrityViolationException e) {
+            throw missingReference(req.getPaperId(), userId, e);
         }
-        if (req.getFeedbackText() != null && req.getFeedbackText().length() > 2000) {
-            throw new IllegalArgumentException("Feedback exceeds 2000 characters");
-        }
-
-        // prevent duplicate feedback by same user for same paper
-//        if (feedbackRepository.existsByPaperIdAndUserId(paper.getId(), user.getId())) {
-//            throw new DuplicateResponseException("Feedback already submitted for this paper by this user");
-//        }
-        Feedback existing = feedbackRepository.findByPaperIdAndUserId(paper.getId(), user.getId());
-        if (existing != null) {
-            existing.setFeedbackType(req.getFeedbackType());
-            existing.setRole(req.getRole());
-            existing.setRating(req.getRating());
-            existing.setFeedbackText(req.getFeedbackText());
-            return mapToResponse(feedbackRepository.save(existing));
-        }
-
-        Feedback saved = feedbackRepository.save(
-                Feedback.builder()
-                        .paper(paper)
-                        .user(user)
-                        .feedbackType(req.getFeedbackType())
-                        .role(req.getRole())
-                        .rating(req.getRating())
-                        .feedbackText(req.getFeedbackText())
-                        .build()
-        );
-
-        LocalDateTime created = saved.getCreatedAt(); // assumed @CreationTimestamp present
+
         return FeedbackResponse.builder()
-                .id(saved.getId())
-                .paperId(paper.getId())
-                .userId(user.getId())
-                .feedbackType(saved.getFeedbackType())
-                .role(saved.getRole())
-                .rating(saved.getRating())
-                .feedbackText(saved.getFeedbackText())
-                .createdAt(created != null ? created.toString() : null) // per your choice C
+                .id(written.id())
+                .paperId(req.getPaperId())
+                .userId(userId)
+                .feedbackType(req.getFeedbackType())
+                .role(req.getRole())
+                .rating(req.getRating())
+                .feedbackText(req.getFeedbackText())
+                .createdAt(written.createdAt() != null ? written.createdAt().toString() : null)
                 .build();
     }
 
-    private FeedbackResponse mapToResponse(Feedback f) {
+    @Override
+    public List<FeedbackBatchResult> submitFeedbackBatch(List<FeedbackRequest> reqs, Long userId) {
+        if (reqs == null || reqs.isEmpty()) {
+            throw new IllegalArgumentException("At least one feedback item is required");
+        }
+        if (reqs.size() > maxBatchSize) {
+            throw new IllegalArgumentException("At most " + maxBatchSize + " feedback items per batch");
+        }
+
+        FeedbackBatchResult[] results = new FeedbackBatchResult[reqs.size()];
+        Map<Long, Integer> candidates = new LinkedHashMap<>(); // paperId -> index
+        for (int i = 0; i < reqs.size(); i++) {
+            FeedbackRequest req = reqs.get(i);
+            String error = req == null ? "Feedback item is required" : validate(req);
+            if (error == null && candidates.putIfAbsent(req.getPaperId(), i) != null) {
+                error = "Duplicate paper in batch";
+            }
+            if (error != null) {
+                results[i] = new FeedbackBatchResult(i, req != null ? req.getPaperId() : null, INVALID, error);
+            }
+        }
+
+        if (!candidates.isEmpty()) {
+            // one indexed lookup so a single unknown paper cannot fail the whole batch on its foreign key
+            Set<Long> existing = new HashSet<>(namedJdbcTemplate.queryForList(EXISTING_PAPERS_SQL,
+                    new MapSqlParameterSource("ids", candidates.keySet()), Long.class));
+
+            LocalDateTime now = LocalDateTime.now();
+            List<Object[]> batchArgs = new ArrayList<>(candidates.size());
+            for (Map.Entry<Long, Integer> candidate : candidates.entrySet()) {
+                int i = candidate.getValue();
+                if (existing.contains(candidate.getKey())) {
+                    batchArgs.add(upsertArgs(reqs.get(i), userId, now));
+                    results[i] = new FeedbackBatchResult(i, candidate.getKey(), SAVED, null);
+                } else {
+                    results[i] = new FeedbackBatchResult(i, candidate.getKey(), NOT_FOUND,
+                            "Paper not found: " + candidate.getKey());
+                }
+            }
+            if (!batchArgs.isEmpty()) {
+                try {
+                    feedbackWriter.writeAll(batchArgs);
+                } catch (DataIntegrityViolationException e) {
+                    // the user, or a paper deleted since the lookup: nothing was written
+                    if (!userRepository.existsById(userId)) {
+                        throw new ResourceNotFoundException("User not found: " + userId);
+                    }
+                    throw e;
+                }
+            }
+        }
+        return Arrays.asList(results);
+    }
+
+    @Override
+    public boolean isWriteBehind() {
+        return writeBehindQueue != null;
+    }
+
+    @Override
+    public FeedbackReceipt enqueueFeedback(FeedbackRequest req, Long userId) {
+        if (writeBehindQueue == null) {
+            throw new IllegalStateException("Feedback write-behind is not enabled");
+        }
+        String error = validate(req);
+        if (error != null) {
+            throw new IllegalArgumentException(error);
+        }
+        // checked now so the client hears about it; the foreign key still guards the later write
+        if (!paperRepository.existsById(req.getPaperId())) {
+            throw new ResourceNotFoundException("Paper not found: " + req.getPaperId());
+        }
+        String trackingId = writeBehindQueue.enqueue(upsertArgs(req, userId, LocalDateTime.now()), userId);
+        return new FeedbackReceipt(trackingId, FeedbackWriteBehindQueue.PENDING, null);
+    }
+
+    @Override
+    public FeedbackReceipt getReceipt(String trackingId, Long userId) {
+        FeedbackReceipt receipt = writeBehindQueue != null ? writeBehindQueue.receipt(trackingId, userId) : null;
+        if (receipt == null) {
+            throw new ResourceNotFoundException("Unknown feedback tracking id: " + trackingId);
+        }
+        return receipt;
+    }
+
+    @Override
+    public FeedbackPage getPaperFeedback(Long paperId, String after, int limit) {
+        Cursor cursor = Cursor.decode(after);
+        int size = pageSize(limit);
+        return page(feedbackRepository.findPaperPage(paperId, cursor.createdAt(), cursor.id(), Limit.of(size + 1)), size);
+    }
+
+    @Override
+    public FeedbackPage getUserFeedback(Long userId, String after, int limit) {
+        Cursor cursor = Cursor.decode(after);
+        int size = pageSize(limit);
+        return page(feedbackRepository.findUserPage(userId, cursor.createdAt(), cursor.id(), Limit.of(size + 1)), size);
+    }
+
+    private int pageSize(int limit) {
+        if (limit < 1 || limit > maxPageSize) {
+            throw new IllegalArgumentException("limit must be between 1 and " + maxPageSize);
+        }
+        return limit;
+    }
+
+    // one row beyond the page tells whether there is a next page without a count query
+    private static FeedbackPage page(List<FeedbackView> rows, int size) {
+        boolean more = rows.size() > size;
+        List<FeedbackView> pageRows = more ? rows.subList(0, size) : rows;
+        List<FeedbackResponse> items = pageRows.stream().map(FeedbackServiceImpl::toResponse).toList();
+        String next = more ? Cursor.of(pageRows.get(size - 1)).encode() : null;
+        return new FeedbackPage(items, next);
+    }
+
+    private static FeedbackResponse toResponse(FeedbackView view) {
         return FeedbackResponse.builder()
-                .id(f.getId())
-                .paperId(f.getPaper().getId())
-                .userId(f.getUser().getId())
-                .feedbackType(f.getFeedbackType())
-                .role(f.getRole())
-                .rating(f.getRating())
-                .feedbackText(f.getFeedbackText())
-                .createdAt(f.getCreatedAt() != null ? f.getCreatedAt().toString() : null)
+                .id(view.getId())
+                .paperId(view.getPaperId())
+                .userId(view.getUserId())
+                .feedbackType(view.getFeedbackType())
+                .role(view.getRole())
+                .rating(view.getRating())
+                .feedbackText(view.getFeedbackText())
+                .createdAt(view.getCreatedAt() != null ? view.getCreatedAt().toString() : null)
                 .build();
     }
+
+    private static String validate(FeedbackRequest req) {
+        if (req.getPaperId() == null) {
+            return "paperId is required";
+        }
+        if (req.getRating() == null || req.getRating() < 1 || req.getRating() > 5) {
+            return "Rating must be between 1 and 5";
+        }
+        if (req.getFeedbackText() != null && req.getFeedbackText().length() > 2000) {
+            return "Feedback exceeds 2000 characters";
+        }
+        return null;
+    }
+
+    // column order of FeedbackWriter.UPSERT_SQL
+    static Object[] upsertArgs(FeedbackRequest req, Long userId, LocalDateTime now) {
+        return new Object[]{req.getPaperId(), userId, req.getFeedbackType(), req.getRole(),
+                req.getRating(), req.getFeedbackText(), Timestamp.valueOf(now)};
+    }
+
+    // the upsert only fails on a foreign key, so this runs on the error path alone
+    private RuntimeException missingReference(Long paperId, Long userId, DataIntegrityViolationException e) {
+        if (!userRepository.existsById(userId)) {
+            return new ResourceNotFoundException("User not found: " + userId);
+        }
+        if (!paperRepository.existsById(paperId)) {
+            return new ResourceNotFoundException("Paper not found: " + paperId);
+        }
+        return e;
+    }
+
+    /**
+     * Position after which the next page starts; opaque to clients (base64url of "createdAt|id").
+     */
+    record Cursor(LocalDateTime createdAt, Long id) {
+
+        // sorts after every real row, so the first page needs no separate query
+        static final Cursor FIRST = new Cursor(LocalDateTime.of(9999, 12, 31, 23, 59, 59), Long.MAX_VALUE);
+
+        static Cursor of(FeedbackView row) {
+            return new Cursor(row.getCreatedAt(), row.getId());
+        }
+
+        static Cursor decode(String value) {
+            if (value == null || value.isBlank()) {
+                return FIRST;
+            }
+            try {
+                String raw = new String(Base64.getUrlDecoder().decode(value), StandardCharsets.UTF_8);
+                int separator = raw.lastIndexOf('|');
+                return new Cursor(LocalDateTime.parse(raw.substring(0, separator)),
+                        Long.parseLong(raw.substring(separator + 1)));
+            } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+        }
+
+        String encode() {
+            String raw = createdAt + "|" + id;
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+        }
+    }
 }
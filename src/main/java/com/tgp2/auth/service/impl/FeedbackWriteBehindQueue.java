@@ -0,0 +1,218 @@
+package com.tgp2.auth.service.impl;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.tgp2.auth.dto.FeedbackReceipt;
+import com.tgp2.auth.exception.FeedbackQueueFullException;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Write-behind path for feedback, enabled with {@code feedback.ingest.mode: write-behind}.
+ * <p>
+ * Validated submissions are put on a bounded queue and acknowledged with a tracking id. One writer
+ * thread group-commits them: it takes everything that arrives within {@code flushIntervalMs} of the
+ * first waiting item, up to {@code maxBatch}, and upserts it as one JDBC batch in one transaction, so
+ * a burst pays for one commit per group instead of one per request. Writes go through
+ * {@link FeedbackWriter}, so rating summaries stay current. A full queue is rejected with
+ * 503 rather than blocking request threads. On shutdown the queue stops accepting and is drained.
+ * <p>
+ * Exported as {@code feedback.ingest.queue.depth}, {@code feedback.ingest.flush.size} and
+ * {@code feedback.ingest.flush.latency}.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "feedback.ingest.mode", havingValue = "write-behind")
+public class FeedbackWriteBehindQueue {
+
+    static final String PENDING = "PENDING";
+    static final String SAVED = "SAVED";
+    static final String FAILED = "FAILED";
+
+    private final FeedbackWriter feedbackWriter;
+    private final BlockingQueue<PendingFeedback> queue;
+    private final Cache<String, FeedbackReceiptEntry> receipts;
+    private final int maxBatch;
+    private final long flushIntervalNanos;
+    private final long shutdownTimeoutMs;
+    private final DistributionSummary flushSize;
+    private final Timer flushLatency;
+
+    private volatile boolean accepting = true;
+    private Thread writer;
+
+    FeedbackWriteBehindQueue(FeedbackWriter feedbackWriter,
+                                    MeterRegistry meterRegistry,
+                                    @Value("${feedback.ingest.queueCapacity:10000}") int queueCapacity,
+                                    @Value("${feedback.ingest.maxBatch:200}") int maxBatch,
+                                    @Value("${feedback.ingest.flushIntervalMs:50}") long flushIntervalMs,
+                                    @Value("${feedback.ingest.shutdownTimeoutMs:10000}") long shutdownTimeoutMs,
+                                    @Value("${feedback.ingest.receiptTtlMs:600000}") long receiptTtlMs) {
+        this.feedbackWriter = feedbackWriter;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.receipts = Caffeine.newBuilder()
+                .maximumSize(queueCapacity * 4L)
+                .expireAfterWrite(Duration.ofMillis(receiptTtlMs))
+                .build();
+        this.maxBatch = Math.max(1, maxBatch);
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+        this.shutdownTimeoutMs = shutdownTimeoutMs;
+
+        Gauge.builder("feedback.ingest.queue.depth", queue, BlockingQueue::size)
+                .description("Accepted feedback waiting to be written")
+                .register(meterRegistry);
+        this.flushSize = DistributionSummary.builder("feedback.ingest.flush.size")
+                .description("Feedback rows written per group commit")
+                .register(meterRegistry);
+        this.flushLatency = Timer.builder("feedback.ingest.flush.latency")
+                .description("Time to write and commit one group")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void start() {
+        writer = new Thread(this::run, "feedback-write-behind");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Queues an already validated submission and returns its tracking id.
+     */
+    String enqueue(Object[] upsertArgs, Long userId) {
+        if (!accepting) {
+            throw new FeedbackQueueFullException("Feedback ingestion is shutting down", 1);
+        }
+        String trackingId = UUID.randomUUID().toString();
+        receipts.put(trackingId, new FeedbackReceiptEntry(userId, PENDING, null));
+        if (!queue.offer(new PendingFeedback(trackingId, upsertArgs))) {
+            receipts.invalidate(trackingId);
+            throw new FeedbackQueueFullException("Feedback queue is full, please retry shortly", 1);
+        }
+        return trackingId;
+    }
+
+    /**
+     * The submission's current state, or null when unknown, expired or owned by another user.
+     */
+    FeedbackReceipt receipt(String trackingId, Long userId) {
+        FeedbackReceiptEntry entry = receipts.getIfPresent(trackingId);
+        if (entry == null || !entry.userId().equals(userId)) {
+            return null;
+        }
+        return new FeedbackReceipt(trackingId, entry.status(), entry.message());
+    }
+
+    private void run() {
+        List<PendingFeedback> group = new ArrayList<>(maxBatch);
+        while (accepting || !queue.isEmpty()) {
+            try {
+                PendingFeedback first = queue.poll(flushIntervalNanos, TimeUnit.NANOSECONDS);
+                if (first == null) {
+                    continue;
+                }
+                group.add(first);
+                collect(group);
+                flush(group);
+            } catch (InterruptedException e) {
+                // only stop() interrupts, and only after its timeout: give up on the rest
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("Feedback write-behind flush failed", e);
+            } finally {
+                group.clear();
+            }
+        }
+    }
+
+    // fills the group until it is full or the window opened by its first item has passed
+    private void collect(List<PendingFeedback> group) throws InterruptedException {
+        queue.drainTo(group, maxBatch - group.size());
+        long deadline = System.nanoTime() + flushIntervalNanos;
+        while (group.size() < maxBatch && accepting) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                break;
+            }
+            PendingFeedback next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                break;
+            }
+            group.add(next);
+            queue.drainTo(group, maxBatch - group.size());
+        }
+    }
+
+    void flush(List<PendingFeedback> group) {
+        long start = System.nanoTime();
+        try {
+            List<Object[]> batchArgs = group.stream().map(PendingFeedback::upsertArgs).toList();
+            feedbackWriter.writeAll(batchArgs);
+            group.forEach(pending -> resolve(pending, SAVED, null));
+        } catch (DataAccessException e) {
+            // one bad row (e.g. a paper deleted meanwhile) rolls back the group: retry row by row
+            // so only that row is lost
+            for (PendingFeedback pending : group) {
+                try {
+                    feedbackWriter.writeAll(Collections.singletonList(pending.upsertArgs()));
+                    resolve(pending, SAVED, null);
+                } catch (DataAccessException single) {
+                    log.warn("Dropping queued feedback {}: {}", pending.trackingId(), single.getMessage());
+                    resolve(pending, FAILED, "Feedback could not be saved");
+                }
+            }
+        } finally {
+            flushSize.record(group.size());
+            flushLatency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private void resolve(PendingFeedback pending, String status, String message) {
+        // compute keeps the owner and skips receipts that already expired
+        receipts.asMap().computeIfPresent(pending.trackingId(),
+                (id, entry) -> new FeedbackReceiptEntry(entry.userId(), status, message));
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        accepting = false;
+        writer.join(shutdownTimeoutMs);
+        if (writer.isAlive()) {
+            writer.interrupt();
+            log.warn("Feedback write-behind did not drain within {} ms, {} submissions lost",
+                    shutdownTimeoutMs, queue.size());
+            return;
+        }
+        // a submission that raced the shutdown flag is still written
+        List<PendingFeedback> rest = new ArrayList<>();
+        queue.drainTo(rest);
+        if (!rest.isEmpty()) {
+            flush(rest);
+        }
+    }
+
+    record PendingFeedback(String trackingId, Object[] upsertArgs) {
+    }
+
+    private record FeedbackReceiptEntry(Long userId, String status, String message) {
+    }
+}
@@ -0,0 +1,213 @@
+package com.tgp2.auth.service.impl;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.jdbc.core.ArgumentPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.function.Supplier;
+
+/**
+ * Every feedback write goes through here so {@code paper_rating_summary} stays in step with the
+ * {@code feedback} table without ever aggregating it.
+ * <p>
+ * A write first locks the summary rows of the papers it touches, in paper id order (created empty
+ * if missing, then {@code SELECT ... FOR UPDATE}). That serializes all writers of one paper, so the
+ * plain read of the existing rows that follows cannot be stale: no other transaction can change
+ * those feedback rows until this one commits. Reading without a lock also avoids the gap locks a
+ * {@code FOR UPDATE} on not-yet-existing rows takes, on which two first submissions deadlocked.
+ * The rows are then upserted and the difference applied to the summaries: a new rating adds to the
+ * count, the sum and its bucket, a changed rating moves between buckets, an unchanged one costs no
+ * summary statement.
+ * <p>
+ * Each call is its own transaction; one that still loses a deadlock or lock wait is retried.
+ * Rows are the {@link #UPSERT_SQL} arguments built by {@link FeedbackServiceImpl#upsertArgs}.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+class FeedbackWriter {
+
+    static final String UPSERT_SQL = """
+            INSERT INTO feedback (paper_id, user_id, feedback_type, role, rating, feedback_text, created_at)
+            VALUES (?, ?, ?, ?, ?, ?, ?)
+            ON DUPLICATE KEY UPDATE feedback_type = VALUES(feedback_type),
+                role = VALUES(role), rating = VALUES(rating), feedback_text = VALUES(feedback_text)""";
+    static final String EXISTING_ROWS_SQL =
+            "SELECT id, paper_id, user_id, rating, created_at FROM feedback WHERE (paper_id, user_id) IN (:keys)";
+    static final String SUMMARY_ROW_SQL = """
+            INSERT INTO paper_rating_summary
+                (paper_id, rating_count, rating_sum, rating_1, rating_2, rating_3, rating_4, rating_5)
+            VALUES (?, 0, 0, 0, 0, 0, 0, 0)
+            ON DUPLICATE KEY UPDATE paper_id = paper_id""";
+    static final String LOCK_SUMMARIES_SQL =
+            "SELECT paper_id FROM paper_rating_summary WHERE paper_id IN (:ids) ORDER BY paper_id FOR UPDATE";
+    static final String SUMMARY_DELTA_SQL = """
+            INSERT INTO paper_rating_summary
+                (paper_id, rating_count, rating_sum, rating_1, rating_2, rating_3, rating_4, rating_5)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?)
+            ON DUPLICATE KEY UPDATE rating_count = rating_count + VALUES(rating_count),
+                rating_sum = rating_sum + VALUES(rating_sum),
+                rating_1 = rating_1 + VALUES(rating_1), rating_2 = rating_2 + VALUES(rating_2),
+                rating_3 = rating_3 + VALUES(rating_3), rating_4 = rating_4 + VALUES(rating_4),
+                rating_5 = rating_5 + VALUES(rating_5)""";
+
+    static final int MAX_ATTEMPTS = 3;
+
+    private static final int PAPER_ID = 0;
+    private static final int USER_ID = 1;
+    private static final int RATING = 4;
+    private static final int CREATED_AT = 6;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * Writes one row and returns its id, its stored creation time, and whether the row is new.
+     */
+    Written write(Object[] row) {
+        List<Object[]> rows = Collections.singletonList(row);
+        return inTransaction(() -> {
+            lockSummaries(rows);
+            Map<FeedbackKey, ExistingRow> existing = existingRows(rows);
+            ExistingRow before = existing.get(key(row));
+            KeyHolder keyHolder = new GeneratedKeyHolder();
+            jdbcTemplate.update(con -> {
+                PreparedStatement ps = con.prepareStatement(UPSERT_SQL, new String[]{"id"});
+                new ArgumentPreparedStatementSetter(row).setValues(ps);
+                return ps;
+            }, keyHolder);
+            applyDeltas(rows, existing);
+            // only an insert reports a reliable key; an updated row keeps the id and created_at read above
+            return before != null
+                    ? new Written(before.id(), before.createdAt(), false)
+                    : new Written(generatedId(keyHolder), ((Timestamp) row[CREATED_AT]).toLocalDateTime(), true);
+        });
+    }
+
+    /**
+     * Writes the rows as one JDBC batch, in order: a later row for the same paper and user wins.
+     */
+    void writeAll(List<Object[]> rows) {
+        inTransaction(() -> {
+            lockSummaries(rows);
+            Map<FeedbackKey, ExistingRow> existing = existingRows(rows);
+            jdbcTemplate.batchUpdate(UPSERT_SQL, rows);
+            applyDeltas(rows, existing);
+            return null;
+        });
+    }
+
+    // every writer locks in paper id order, so writers of overlapping papers queue up instead of
+    // deadlocking
+    private void lockSummaries(List<Object[]> rows) {
+        SortedSet<Long> paperIds = new TreeSet<>();
+        rows.forEach(row -> paperIds.add((Long) row[PAPER_ID]));
+        jdbcTemplate.batchUpdate(SUMMARY_ROW_SQL, paperIds.stream().map(id -> new Object[]{id}).toList());
+        namedJdbcTemplate.queryForList(LOCK_SUMMARIES_SQL, new MapSqlParameterSource("ids", paperIds), Long.class);
+    }
+
+    private <T> T inTransaction(Supplier<T> work) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> work.get());
+            } catch (PessimisticLockingFailureException e) {
+                if (attempt == MAX_ATTEMPTS) {
+                    throw e;
+                }
+                log.debug("Feedback write lost a lock conflict, retrying (attempt {})", attempt, e);
+            }
+        }
+    }
+
+    private Map<FeedbackKey, ExistingRow> existingRows(List<Object[]> rows) {
+        Set<FeedbackKey> keys = new LinkedHashSet<>();
+        rows.forEach(row -> keys.add(key(row)));
+        List<Object[]> tuples = keys.stream().map(k -> new Object[]{k.paperId(), k.userId()}).toList();
+
+        Map<FeedbackKey, ExistingRow> existing = new HashMap<>();
+        namedJdbcTemplate.query(EXISTING_ROWS_SQL, new MapSqlParameterSource("keys", tuples), rs -> {
+            int value = rs.getInt("rating");
+            Integer rating = rs.wasNull() ? null : value;
+            Timestamp createdAt = rs.getTimestamp("created_at");
+            existing.put(new FeedbackKey(rs.getLong("paper_id"), rs.getLong("user_id")),
+                    new ExistingRow(rs.getLong("id"), rating, createdAt != null ? createdAt.toLocalDateTime() : null));
+        });
+        return existing;
+    }
+
+    private void applyDeltas(List<Object[]> rows, Map<FeedbackKey, ExistingRow> existing) {
+        // a key that maps to null is a row without a rating
+        Map<FeedbackKey, Integer> current = new HashMap<>();
+        existing.forEach((key, row) -> current.put(key, row.rating()));
+        Map<Long, long[]> deltas = new TreeMap<>(); // paper_id -> count, sum, rating_1..rating_5
+        for (Object[] row : rows) {
+            FeedbackKey key = key(row);
+            boolean existed = current.containsKey(key);
+            Integer before = current.get(key);
+            Integer after = (Integer) row[RATING];
+            current.put(key, after); // a later row for the same key replaces this one
+            if (existed && Objects.equals(before, after)) {
+                continue;
+            }
+            long[] delta = deltas.computeIfAbsent(key.paperId(), paperId -> new long[7]);
+            if (existed) {
+                add(delta, before, -1);
+            }
+            add(delta, after, 1);
+        }
+
+        List<Object[]> batchArgs = new ArrayList<>(deltas.size());
+        deltas.forEach((paperId, delta) -> {
+            if (Arrays.stream(delta).anyMatch(value -> value != 0)) {
+                batchArgs.add(new Object[]{paperId, delta[0], delta[1], delta[2], delta[3], delta[4], delta[5], delta[6]});
+            }
+        });
+        if (!batchArgs.isEmpty()) {
+            jdbcTemplate.batchUpdate(SUMMARY_DELTA_SQL, batchArgs);
+        }
+    }
+
+    // rows without a rating are not part of the summary, matching COUNT(rating) in the rebuild
+    private static void add(long[] delta, Integer rating, int sign) {
+        if (rating == null || rating < 1 || rating > 5) {
+            return;
+        }
+        delta[0] += sign;
+        delta[1] += (long) sign * rating;
+        delta[1 + rating] += sign;
+    }
+
+    private static FeedbackKey key(Object[] row) {
+        return new FeedbackKey((Long) row[PAPER_ID], (Long) row[USER_ID]);
+    }
+
+    private static Long generatedId(KeyHolder keyHolder) {
+        List<Map<String, Object>> keys = keyHolder.getKeyList();
+        if (keys.isEmpty() || keys.get(0).isEmpty()) {
+            throw new IllegalStateException("Feedback upsert returned no id");
+        }
+        return ((Number) keys.get(0).values().iterator().next()).longValue();
+    }
+
+    record Written(Long id, LocalDateTime createdAt, boolean created) {
+    }
+
+    private record FeedbackKey(long paperId, long userId) {
+    }
+
+    private record ExistingRow(Long id, Integer rating, LocalDateTime createdAt) {
+    }
+}
@@ -0,0 +1,94 @@
+package com.tgp2.auth.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tgp2.auth.exception.GlobalExceptionHandler;
+import com.tgp2.auth.security.BoundedPasswordEncoder;
+import com.tgp2.auth.security.UserDetailsImpl;
+import com.tgp2.auth.service.UserImportService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.method.annotation.AuthenticationPrincipalArgumentResolver;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Set;
+
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@ExtendWith(MockitoExtension.class)
+class AdminUserControllerTest {
+
+    private static final long IMPORTER_ID = 1L;
+
+    @Mock private JdbcTemplate jdbcTemplate;
+    @Mock private NamedParameterJdbcTemplate namedJdbcTemplate;
+    @Mock private TransactionTemplate transactionTemplate;
+    @Mock private BoundedPasswordEncoder passwordEncoder;
+
+    private UserImportService importService;
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setup() {
+        importService = new UserImportService(jdbcTemplate, namedJdbcTemplate, transactionTemplate,
+                passwordEncoder, new ObjectMapper(), 2, 1);
+        AdminUserController controller = new AdminUserController(importService);
+        ReflectionTestUtils.setField(controller, "allowedUserIds", Set.of(IMPORTER_ID));
+        mockMvc = MockMvcBuilders
+                .standaloneSetup(controller)
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .setCustomArgumentResolvers(new AuthenticationPrincipalArgumentResolver())
+                .build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        ReflectionTestUtils.invokeMethod(importService, "shutdown");
+        SecurityContextHolder.clearContext();
+    }
+
+    // @AuthenticationPrincipal is resolved from the security context, as the JWT filter sets it
+    private static void authenticate(long id, String role) {
+        UserDetailsImpl user = new UserDetailsImpl();
+        user.setId(id);
+        user.setRole(role);
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(user, null));
+    }
+
+    @Test
+    void importUsers_RejectsSelfRegisteredAdmin() throws Exception {
+        authenticate(42L, "ADMIN");
+
+        mockMvc.perform(post("/api/admin/users/import")
+                        .contentType("text/csv")
+                        .content("username,email,password,role\nmallory,m@example.com,pw,ADMIN\n"))
+                .andExpect(status().isForbidden());
+
+        verifyNoInteractions(jdbcTemplate, namedJdbcTemplate);
+    }
+
+    @Test
+    void importUsers_Returns400_ForMalformedCsvHeader() throws Exception {
+        authenticate(IMPORTER_ID, "Staff");
+
+        mockMvc.perform(post("/api/admin/users/import")
+                        .contentType("text/csv")
+                        .content("name,mail\nalice,alice@example.com\n"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.success").value(false));
+
+        verifyNoInteractions(jdbcTemplate, namedJdbcTemplate);
+    }
+}
@@ -5,22 +5,28 @@ import com.tgp2.auth.dto.FeedbackRequest;
 import com.tgp2.auth.dto.FeedbackResponse;
 import com.tgp2.auth.security.UserDetailsImpl;
 import com.tgp2.auth.service.FeedbackService;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.MediaType;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.web.method.annotation.AuthenticationPrincipalArgumentResolver;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
+@ExtendWith(MockitoExtension.class)
 class FeedbackControllerTest {
 
     private MockMvc mockMvc;
@@ -51,6 +57,11 @@ class FeedbackControllerTest {
                 .build();
     }
 
+    @AfterEach
+    void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
     @Test
     void submitFeedback_Returns201AndBody() throws Exception {
         FeedbackResponse resp = FeedbackResponse.builder()
@@ -68,12 +79,13 @@ class FeedbackControllerTest {
 
         UserDetailsImpl principal = new UserDetailsImpl();
         principal.setId(5L);
+        // @AuthenticationPrincipal resolves from the security context, not the request principal
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(principal, null));
 
         mockMvc.perform(
                         post("/api/feedback/submit")
                                 .contentType(MediaType.APPLICATION_JSON)
                                 .content(mapper.writeValueAsString(request))
-                                .principal(new UsernamePasswordAuthenticationToken(principal, null))
                 )
                 .andExpect(status().isCreated())
                 .andExpect(jsonPath("$.id").value(100L))
@@ -81,6 +93,6 @@ class FeedbackControllerTest {
                 .andExpect(jsonPath("$.userId").value(5L))
                 .andExpect(jsonPath("$.rating").value(5));
 
-        verify(feedbackService).submitFeedback(any(), any());
+        verify(feedbackService).submitFeedback(any(), eq(5L));
     }
 }
@@ -0,0 +1,65 @@
+package com.tgp2.auth.entity;
+
+import com.tgp2.auth.security.UserDetailsCache;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UserCacheInvalidationListenerTest {
+
+    @Mock
+    private UserDetailsCache userDetailsCache;
+
+    private UserCacheInvalidationListener listener;
+    private User user;
+
+    @BeforeEach
+    void setup() {
+        listener = new UserCacheInvalidationListener(userDetailsCache);
+        user = User.builder().id(1L).email("test@example.com").build();
+    }
+
+    @AfterEach
+    void clearSynchronization() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void onUserChanged_InATransaction_EvictsOnlyAfterCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+
+        listener.onUserChanged(user);
+        verifyNoInteractions(userDetailsCache);
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        verify(userDetailsCache).evict(1L, "test@example.com");
+    }
+
+    @Test
+    void onUserChanged_InARolledBackTransaction_DoesNotEvict() {
+        TransactionSynchronizationManager.initSynchronization();
+
+        listener.onUserChanged(user);
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+        verifyNoInteractions(userDetailsCache);
+    }
+
+    @Test
+    void onUserChanged_WithoutATransaction_EvictsImmediately() {
+        listener.onUserChanged(user);
+
+        verify(userDetailsCache).evict(1L, "test@example.com");
+    }
+}
@@ -0,0 +1,169 @@
+package com.tgp2.auth.repository;
+
+import com.tgp2.auth.entity.Paper;
+import com.tgp2.auth.entity.User;
+import com.tgp2.auth.repository.FeedbackRepository.FeedbackView;
+import com.tgp2.auth.security.UserDetailsCache;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Keyset pages come back newest first with ties on createdAt broken by id, and each page is a
+ * single projection query: no Feedback entities and no lazy paper or user loads. A page deep into
+ * a long listing reads as few index entries as the first page does.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+                + "com.tgp2.auth.repository.FeedbackRepositoryTest$LastStatement"
+})
+class FeedbackRepositoryTest {
+
+    private static final LocalDateTime FIRST_PAGE = LocalDateTime.of(9999, 12, 31, 23, 59, 59);
+    private static final Pattern SCAN_COUNT = Pattern.compile("scanCount: (\\d+)");
+
+    // keeps the SQL Hibernate sent last, so the test can ask H2 for the plan of exactly that query
+    public static class LastStatement implements StatementInspector {
+        static volatile String sql;
+
+        @Override
+        public String inspect(String sql) {
+            LastStatement.sql = sql;
+            return sql;
+        }
+    }
+
+    // the User entity listener needs it
+    @MockitoBean private UserDetailsCache userDetailsCache;
+
+    @Autowired private TestEntityManager entityManager;
+    @Autowired private EntityManagerFactory entityManagerFactory;
+    @Autowired private JdbcTemplate jdbcTemplate;
+    @Autowired private FeedbackRepository feedbackRepository;
+
+    private Long paperId;
+    private Long reviewerId;
+    private Statistics statistics;
+
+    @BeforeEach
+    void setup() {
+        User owner = entityManager.persist(user("owner"));
+        Paper paper = entityManager.persist(Paper.builder().title("Paper").user(owner).build());
+        paperId = paper.getId();
+
+        // five reviewers; the middle three share one timestamp
+        LocalDateTime base = LocalDateTime.of(2025, 11, 9, 12, 0);
+        LocalDateTime[] createdAt = {base, base.plusMinutes(1), base.plusMinutes(1), base.plusMinutes(1), base.plusMinutes(2)};
+        for (int i = 0; i < createdAt.length; i++) {
+            Long userId = entityManager.persist(user("reviewer" + i)).getId();
+            if (i == 0) {
+                reviewerId = userId;
+            }
+            entityManager.flush();
+            jdbcTemplate.update("INSERT INTO feedback (paper_id, user_id, rating, created_at) VALUES (?, ?, ?, ?)",
+                    paperId, userId, 1 + i, Timestamp.valueOf(createdAt[i]));
+        }
+        entityManager.clear();
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    private static User user(String name) {
+        return User.builder().username(name).email(name + "@example.com").password("x").role("Student").build();
+    }
+
+    @Test
+    void findPaperPage_WalksAllRowsNewestFirst_OneQueryPerPage() {
+        List<Integer> ratings = new ArrayList<>();
+        LocalDateTime createdAt = FIRST_PAGE;
+        Long id = Long.MAX_VALUE;
+        int pages = 0;
+        while (true) {
+            List<FeedbackView> page = feedbackRepository.findPaperPage(paperId, createdAt, id, Limit.of(2));
+            pages++;
+            page.forEach(row -> ratings.add(row.getRating()));
+            if (page.size() < 2) {
+                break;
+            }
+            FeedbackView last = page.get(page.size() - 1);
+            createdAt = last.getCreatedAt();
+            id = last.getId();
+        }
+
+        // inserted in id order, so ties on createdAt come back highest id first
+        assertEquals(List.of(5, 4, 3, 2, 1), ratings);
+        assertEquals(pages, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    void findPaperPage_DeepPage_ScansNoMoreOfTheIndexThanTheFirstPage() {
+        List<Object[]> users = new ArrayList<>();
+        for (int i = 0; i < 5_000; i++) {
+            users.add(new Object[]{"deep" + i, "deep" + i + "@example.com", "x", "Student"});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO users (username, email, password, role) VALUES (?, ?, ?, ?)", users);
+        // one review per user, in bursts of three per second so the cursor often lands on a createdAt tie
+        jdbcTemplate.update("INSERT INTO feedback (paper_id, user_id, rating, created_at) "
+                + "SELECT ?, id, 1 + MOD(id, 5), DATEADD(SECOND, id / 3, TIMESTAMP '2024-01-01 00:00:00') "
+                + "FROM users WHERE username LIKE 'deep%'", paperId);
+        LocalDateTime base = LocalDateTime.of(2024, 1, 1, 0, 0);
+        FeedbackView deep = feedbackRepository.findPaperPage(paperId, base.plusSeconds(100), Long.MAX_VALUE, Limit.of(1)).get(0);
+
+        String firstPlan = plan(FIRST_PAGE, Long.MAX_VALUE);
+        String deepPlan = plan(deep.getCreatedAt(), deep.getId());
+
+        assertTrue(deepPlan.toLowerCase().contains("idx_feedback_paper_created"), deepPlan);
+        assertTrue(deepPlan.contains("index sorted"), deepPlan);
+        // one page of 20, plus the row that ends it
+        assertTrue(scanCount(firstPlan) <= 25, firstPlan);
+        assertTrue(scanCount(deepPlan) <= 25, deepPlan);
+    }
+
+    // EXPLAIN ANALYZE of the statement the repository sent, with the same arguments
+    private String plan(LocalDateTime createdAt, Long id) {
+        List<FeedbackView> page = feedbackRepository.findPaperPage(paperId, createdAt, id, Limit.of(20));
+        assertEquals(20, page.size());
+        Timestamp cursor = Timestamp.valueOf(createdAt);
+        return jdbcTemplate.queryForObject("EXPLAIN ANALYZE " + LastStatement.sql, String.class,
+                paperId, cursor, cursor, id, 20);
+    }
+
+    private static int scanCount(String plan) {
+        Matcher matcher = SCAN_COUNT.matcher(plan);
+        assertTrue(matcher.find(), plan);
+        return Integer.parseInt(matcher.group(1));
+    }
+
+    @Test
+    void findUserPage_ProjectsStraightFromForeignKeys() {
+        List<FeedbackView> page = feedbackRepository.findUserPage(reviewerId, FIRST_PAGE, Long.MAX_VALUE, Limit.of(20));
+
+        assertEquals(1, page.size());
+        assertEquals(paperId, page.get(0).getPaperId());
+        assertEquals(reviewerId, page.get(0).getUserId());
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+}
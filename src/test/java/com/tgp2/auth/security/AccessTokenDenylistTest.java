@@ -0,0 +1,227 @@
+package com.tgp2.auth.security;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.security.SecureRandom;
+import java.time.Instant;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AccessTokenDenylistTest {
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    @TempDir
+    Path dir;
+
+    private AccessTokenDenylist denylist;
+
+    @AfterEach
+    void tearDown() throws Exception {
+        denylist.close();
+    }
+
+    private AccessTokenDenylist open(int capacity) {
+        AccessTokenDenylist list = new AccessTokenDenylist();
+        ReflectionTestUtils.setField(list, "enabled", true);
+        ReflectionTestUtils.setField(list, "location", dir.resolve("denylist.bin").toString());
+        ReflectionTestUtils.setField(list, "capacity", capacity);
+        ReflectionTestUtils.setField(list, "bloomBits", 4096);
+        list.open();
+        return list;
+    }
+
+    private static String token() {
+        byte[] signature = new byte[32];
+        RANDOM.nextBytes(signature);
+        return "eyJhbGciOiJIUzI1NiJ9.eyJzdWIiOiJ4In0." + Base64.getUrlEncoder().withoutPadding().encodeToString(signature);
+    }
+
+    @Test
+    void revokedToken_IsRejected_OthersAreNot() {
+        denylist = open(16);
+        String revoked = token();
+
+        denylist.revoke(revoked, Instant.now().plusSeconds(600));
+
+        assertTrue(denylist.isRevoked(revoked));
+        assertFalse(denylist.isRevoked(token()));
+        assertFalse(denylist.isRevoked("not-a-jwt"));
+    }
+
+    @Test
+    void revocations_SurviveRestart() throws Exception {
+        denylist = open(16);
+        String revoked = token();
+        denylist.revoke(revoked, Instant.now().plusSeconds(600));
+        denylist.close();
+
+        denylist = open(16);
+
+        assertTrue(denylist.isRevoked(revoked));
+        assertEquals(1, denylist.size());
+    }
+
+    @Test
+    void alreadyExpiredToken_IsNotStored() {
+        denylist = open(16);
+        String expired = token();
+
+        denylist.revoke(expired, Instant.now().minusSeconds(1));
+
+        assertFalse(denylist.isRevoked(expired));
+        assertEquals(0, denylist.size());
+    }
+
+    @Test
+    void fileGrows_WhenCapacityIsExhausted() throws Exception {
+        denylist = open(2);
+        String[] tokens = {token(), token(), token(), token(), token()};
+        for (String t : tokens) {
+            denylist.revoke(t, Instant.now().plusSeconds(600));
+        }
+        denylist.close();
+
+        denylist = open(2);
+
+        for (String t : tokens) {
+            assertTrue(denylist.isRevoked(t));
+        }
+    }
+
+    @Test
+    void revocations_SurviveReopen_AfterCompaction() throws Exception {
+        denylist = open(16);
+        String[] tokens = {token(), token(), token()};
+        for (String t : tokens) {
+            denylist.revoke(t, Instant.now().plusSeconds(600));
+        }
+        denylist.compact();
+        String afterCompaction = token();
+        denylist.revoke(afterCompaction, Instant.now().plusSeconds(600));
+        denylist.close();
+
+        denylist = open(16);
+
+        for (String t : tokens) {
+            assertTrue(denylist.isRevoked(t));
+        }
+        assertTrue(denylist.isRevoked(afterCompaction));
+        assertEquals(4, denylist.size());
+        assertFalse(Files.exists(dir.resolve("denylist.bin.tmp")));
+    }
+
+    @Test
+    void interruptedCompaction_LeavesTheFileIntact() throws Exception {
+        denylist = open(16);
+        String revoked = token();
+        denylist.revoke(revoked, Instant.now().plusSeconds(600));
+        denylist.close();
+        // a crash before the rename leaves a half-written temp file next to the real one
+        Files.write(dir.resolve("denylist.bin.tmp"), new byte[]{0x4A, 0x44, 0x4C});
+
+        denylist = open(16);
+
+        assertTrue(denylist.isRevoked(revoked));
+        assertEquals(1, denylist.size());
+    }
+
+    @Test
+    void tornAppend_IsIgnored_OnReopen() throws Exception {
+        denylist = open(16);
+        String revoked = token();
+        denylist.revoke(revoked, Instant.now().plusSeconds(600));
+        denylist.close();
+        // a crash mid-append: the next record slot is partly written, the count was never bumped
+        try (FileChannel channel = FileChannel.open(dir.resolve("denylist.bin"), StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.allocate(12).putLong(0x1234L).putInt(0x5678).flip(), 16 + 24);
+        }
+
+        denylist = open(16);
+
+        assertTrue(denylist.isRevoked(revoked));
+        assertEquals(1, denylist.size());
+        String next = token();
+        denylist.revoke(next, Instant.now().plusSeconds(600));
+        denylist.close();
+        denylist = open(16);
+        assertTrue(denylist.isRevoked(next));
+        assertEquals(2, denylist.size());
+    }
+
+    @Test
+    void recordCountBeyondTheFile_ReadsAsLapsed() throws Exception {
+        denylist = open(2);
+        String revoked = token();
+        denylist.revoke(revoked, Instant.now().plusSeconds(600));
+        denylist.close();
+        // a header that claims more records than were written before the crash
+        try (FileChannel channel = FileChannel.open(dir.resolve("denylist.bin"), StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.allocate(8).putLong(3).flip(), 8);
+        }
+
+        denylist = open(2);
+
+        assertTrue(denylist.isRevoked(revoked));
+        assertEquals(1, denylist.size());
+    }
+
+    @Test
+    void revoke_OnAFullFile_GrowsInPlace_WithoutRewritingIt() throws Exception {
+        denylist = open(4);
+        // a compaction that never finishes keeps the background thread out of the way
+        ((AtomicBoolean) ReflectionTestUtils.getField(denylist, "compactionQueued")).set(true);
+        Path file = dir.resolve("denylist.bin");
+        Object fileKey = Files.readAttributes(file, BasicFileAttributes.class).fileKey();
+        String[] tokens = {token(), token(), token(), token(), token(), token(), token()};
+
+        for (String t : tokens) {
+            denylist.revoke(t, Instant.now().plusSeconds(600));
+        }
+
+        assertEquals(fileKey, Files.readAttributes(file, BasicFileAttributes.class).fileKey());
+        assertEquals(8, ReflectionTestUtils.getField(denylist, "capacity"));
+        denylist.close();
+        denylist = open(4);
+        for (String t : tokens) {
+            assertTrue(denylist.isRevoked(t));
+        }
+    }
+
+    @Test
+    void revocations_PastThreeQuarters_CompactInTheBackground() throws Exception {
+        denylist = open(8);
+        String[] tokens = {token(), token(), token(), token(), token(), token()};
+
+        for (String t : tokens) {
+            denylist.revoke(t, Instant.now().plusSeconds(600));
+        }
+
+        long deadline = System.nanoTime() + 5_000_000_000L;
+        while ((int) ReflectionTestUtils.getField(denylist, "capacity") != 16 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(16, ReflectionTestUtils.getField(denylist, "capacity"));
+        String afterCompaction = token();
+        denylist.revoke(afterCompaction, Instant.now().plusSeconds(600));
+        denylist.close();
+
+        denylist = open(8);
+        for (String t : tokens) {
+            assertTrue(denylist.isRevoked(t));
+        }
+        assertTrue(denylist.isRevoked(afterCompaction));
+        assertEquals(7, denylist.size());
+    }
+}
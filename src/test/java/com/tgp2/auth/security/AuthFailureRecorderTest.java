@@ -0,0 +1,62 @@
+package com.tgp2.auth.security;
+
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.MalformedJwtException;
+import io.jsonwebtoken.security.SignatureException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AuthFailureRecorderTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private AuthFailureRecorder recorder;
+
+    @BeforeEach
+    void setup() {
+        meterRegistry = new SimpleMeterRegistry();
+        recorder = new AuthFailureRecorder(meterRegistry, 10, 3, false);
+        recorder.clock = () -> 1_000L; // one fixed second
+    }
+
+    @Test
+    void classify_MapsExceptionsToCauses() {
+        assertEquals(AuthFailureRecorder.Cause.EXPIRED, AuthFailureRecorder.classify(new ExpiredJwtException(null, null, "expired")));
+        assertEquals(AuthFailureRecorder.Cause.BAD_SIGNATURE, AuthFailureRecorder.classify(new SignatureException("bad")));
+        assertEquals(AuthFailureRecorder.Cause.MALFORMED, AuthFailureRecorder.classify(new MalformedJwtException("bad")));
+        assertEquals(AuthFailureRecorder.Cause.MALFORMED, AuthFailureRecorder.classify(new IllegalArgumentException("blank")));
+        assertEquals(AuthFailureRecorder.Cause.UNKNOWN_USER, AuthFailureRecorder.classify(new UsernameNotFoundException("gone")));
+        assertEquals(AuthFailureRecorder.Cause.ERROR, AuthFailureRecorder.classify(new IllegalStateException("db")));
+    }
+
+    @Test
+    void record_CountsEveryFailureByCause() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/papers");
+
+        IntStream.range(0, 25).forEach(i -> recorder.record(new MalformedJwtException("bad"), request));
+        recorder.record(AuthFailureRecorder.Cause.REVOKED, null, request);
+
+        assertEquals(25.0, meterRegistry.get("auth.failures").tag("cause", "malformed").counter().count());
+        assertEquals(1.0, meterRegistry.get("auth.failures").tag("cause", "revoked").counter().count());
+    }
+
+    @Test
+    void shouldLog_SamplesEachCause_AndCapsLinesPerSecond() {
+        long expiredLogged = IntStream.range(0, 20)
+                .filter(i -> recorder.shouldLog(AuthFailureRecorder.Cause.EXPIRED)).count();
+        long malformedLogged = IntStream.range(0, 100)
+                .filter(i -> recorder.shouldLog(AuthFailureRecorder.Cause.MALFORMED)).count();
+
+        assertEquals(2, expiredLogged);   // 1st and 11th
+        assertEquals(1, malformedLogged); // sampled 10, but the second's budget of 3 is spent
+
+        recorder.clock = () -> 2_000L;
+        assertTrue(recorder.shouldLog(AuthFailureRecorder.Cause.MALFORMED));
+    }
+}
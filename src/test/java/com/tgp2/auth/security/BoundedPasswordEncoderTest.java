@@ -0,0 +1,64 @@
+package com.tgp2.auth.security;
+
+import com.tgp2.auth.exception.PasswordHashingBusyException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BoundedPasswordEncoderTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private PasswordHashingExecutor executor;
+    private BoundedPasswordEncoder encoder;
+
+    @BeforeEach
+    void setup() {
+        meterRegistry = new SimpleMeterRegistry();
+        executor = new PasswordHashingExecutor(meterRegistry, 1, 1, 2);
+        encoder = new BoundedPasswordEncoder(new BCryptPasswordEncoder(4), executor);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdown();
+    }
+
+    @Test
+    void encodeAndMatches_RunOnExecutor() {
+        String hash = encoder.encode("password123");
+
+        assertTrue(encoder.matches("password123", hash));
+        assertFalse(encoder.matches("wrong", hash));
+        assertEquals(1, meterRegistry.get("auth.password.hashing.duration").tag("operation", "encode").timer().count());
+        assertEquals(2, meterRegistry.get("auth.password.hashing.duration").tag("operation", "matches").timer().count());
+    }
+
+    @Test
+    void encode_RejectsImmediately_WhenWorkersAndQueueAreFull() {
+        CountDownLatch release = new CountDownLatch(1);
+        Runnable blocker = () -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+        assertTrue(executor.trySubmit(blocker)); // occupies the only worker
+        assertTrue(executor.trySubmit(blocker)); // fills the queue
+
+        try {
+            PasswordHashingBusyException ex = assertThrows(PasswordHashingBusyException.class,
+                    () -> encoder.encode("password123"));
+            assertEquals(2, ex.getRetryAfterSeconds());
+            assertEquals(1.0, meterRegistry.get("auth.password.hashing.rejected").counter().count());
+        } finally {
+            release.countDown();
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.tgp2.auth.security;
+
+import io.jsonwebtoken.JwtException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class JwtKeyRingTest {
+
+    private static final String SECRET = "357638792F423F4428472B4B6250655368566D597133743677397A2443264629";
+
+    @TempDir
+    Path dir;
+
+    private JwtKeyRing ring(String activeKid) {
+        JwtKeyRing ring = new JwtKeyRing();
+        ReflectionTestUtils.setField(ring, "algorithm", "RS256");
+        ReflectionTestUtils.setField(ring, "keyDir", dir.toString());
+        ReflectionTestUtils.setField(ring, "activeKid", activeKid);
+        ring.load();
+        return ring;
+    }
+
+    private static JwtUtils jwtUtils(JwtKeyRing ring) {
+        return jwtUtils(ring, false);
+    }
+
+    private static JwtUtils jwtUtils(JwtKeyRing ring, boolean acceptLegacyHs256) {
+        JwtUtils utils = new JwtUtils();
+        ReflectionTestUtils.setField(utils, "jwtSecret", SECRET);
+        ReflectionTestUtils.setField(utils, "jwtExpirationMs", 3_600_000);
+        ReflectionTestUtils.setField(utils, "keyRing", ring);
+        ReflectionTestUtils.setField(utils, "acceptLegacyHs256", acceptLegacyHs256);
+        utils.init();
+        return utils;
+    }
+
+    private static String hs256Token() {
+        JwtUtils hmac = new JwtUtils();
+        ReflectionTestUtils.setField(hmac, "jwtSecret", SECRET);
+        ReflectionTestUtils.setField(hmac, "jwtExpirationMs", 3_600_000);
+        hmac.init();
+        return hmac.generateTokenFromEmail("test@example.com");
+    }
+
+    private static String headerOf(String token) {
+        return new String(Base64.getUrlDecoder().decode(token.substring(0, token.indexOf('.'))));
+    }
+
+    @Test
+    void load_GeneratesKey_WhenDirectoryIsEmpty_AndReusesItOnRestart() {
+        String kid = ring("").activeKid();
+
+        JwtKeyRing restarted = ring("");
+
+        assertEquals(kid, restarted.activeKid());
+        assertTrue(Files.exists(dir.resolve(kid + ".pem")));
+    }
+
+    @Test
+    void generatedPrivateKey_IsReadableByOwnerOnly() throws Exception {
+        assumeTrue(dir.getFileSystem().supportedFileAttributeViews().contains("posix"));
+
+        String kid = ring("").activeKid();
+
+        assertEquals(PosixFilePermissions.fromString("rw-------"),
+                Files.getPosixFilePermissions(dir.resolve(kid + ".pem")));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void jwks_PublishesEveryVerificationKey() throws Exception {
+        String kid = ring("").activeKid();
+        Files.copy(dir.resolve(kid + ".pem"), dir.resolve("0000-next.pem"));
+
+        JwtKeyRing ring = ring("");
+        List<Map<String, String>> keys = (List<Map<String, String>>) ring.jwks().get("keys");
+
+        assertEquals(2, keys.size());
+        assertEquals("RS256", keys.get(0).get("alg"));
+        assertEquals("AQAB", keys.get(0).get("e"));
+        assertNotNull(keys.get(0).get("n"));
+    }
+
+    @Test
+    void rs256Token_CarriesKid_AndVerifies() {
+        JwtKeyRing ring = ring("");
+        JwtUtils jwtUtils = jwtUtils(ring);
+
+        String token = jwtUtils.generateTokenFromEmail("test@example.com");
+
+        assertTrue(headerOf(token).contains("\"kid\":\"" + ring.activeKid() + "\""));
+        assertEquals("test@example.com", jwtUtils.verifyToken(token).email());
+    }
+
+    @Test
+    void tokenFromPreviousKey_StillVerifies_AfterRotation() throws Exception {
+        JwtKeyRing first = ring("");
+        String oldToken = jwtUtils(first).generateTokenFromEmail("test@example.com");
+        Files.copy(dir.resolve(first.activeKid() + ".pem"), dir.resolve("zzzz-rotated.pem"));
+
+        JwtKeyRing rotated = ring("");
+
+        assertEquals("zzzz-rotated", rotated.activeKid());
+        assertEquals("test@example.com", jwtUtils(rotated).verifyToken(oldToken).email());
+    }
+
+    @Test
+    void legacyHs256Token_IsRejected_ByDefault_AndUnknownKidIsRejected() {
+        String legacy = hs256Token();
+        JwtUtils rsa = jwtUtils(ring(""));
+        String token = rsa.generateTokenFromEmail("test@example.com");
+        String unknownKid = Base64.getUrlEncoder().withoutPadding()
+                .encodeToString("{\"alg\":\"RS256\",\"kid\":\"unknown\"}".getBytes()) + token.substring(token.indexOf('.'));
+
+        assertThrows(JwtException.class, () -> rsa.verifyToken(legacy));
+        assertThrows(JwtException.class, () -> rsa.verifyToken(unknownKid));
+    }
+
+    @Test
+    void legacyHs256Token_StillVerifies_WhenAccepted() {
+        String legacy = hs256Token();
+
+        JwtUtils rsa = jwtUtils(ring(""), true);
+
+        assertEquals("test@example.com", rsa.verifyToken(legacy).email());
+    }
+}
@@ -0,0 +1,133 @@
+package com.tgp2.auth.security;
+
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JwtUtilsTest {
+
+    private static final String SECRET = "357638792F423F4428472B4B6250655368566D597133743677397A2443264629";
+
+    private JwtUtils jwtUtils;
+
+    @BeforeEach
+    void setup() {
+        jwtUtils = newJwtUtils(3_600_000);
+    }
+
+    private JwtUtils newJwtUtils(int expirationMs) {
+        JwtUtils utils = new JwtUtils();
+        ReflectionTestUtils.setField(utils, "jwtSecret", SECRET);
+        ReflectionTestUtils.setField(utils, "jwtExpirationMs", expirationMs);
+        utils.init();
+        return utils;
+    }
+
+    @Test
+    void verifyToken_ReturnsClaims_WhenValid() {
+        String token = jwtUtils.generateTokenFromEmail("test@example.com");
+
+        VerifiedClaims claims = jwtUtils.verifyToken(token);
+
+        assertEquals("test@example.com", claims.email());
+        assertNotNull(claims.issuedAt());
+        assertTrue(claims.expiresAt().isAfter(claims.issuedAt()));
+    }
+
+    @Test
+    void generateJwtToken_CarriesPrincipalClaims() {
+        UserDetailsImpl userDetails =
+                new UserDetailsImpl(1L, "testuser", "test@example.com", "encodedPass", "Student", null);
+
+        VerifiedClaims claims = jwtUtils.verifyToken(jwtUtils.generateJwtToken(userDetails));
+        UserDetailsImpl principal = UserDetailsImpl.fromClaims(claims);
+
+        assertTrue(claims.hasPrincipal());
+        assertEquals(1L, principal.getId());
+        assertEquals("test@example.com", principal.getUsername());
+        assertEquals("testuser", principal.getAccountUsername());
+        assertEquals("Student", principal.getRole());
+        assertNull(principal.getPassword());
+        assertEquals(1L, principal.getUser().getId());
+    }
+
+    @Test
+    void generateTokenFromEmail_HasNoPrincipalClaims() {
+        VerifiedClaims claims = jwtUtils.verifyToken(jwtUtils.generateTokenFromEmail("test@example.com"));
+
+        assertFalse(claims.hasPrincipal());
+    }
+
+    @Test
+    void verifyToken_Throws_WhenSignatureTampered() {
+        String token = jwtUtils.generateTokenFromEmail("test@example.com");
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("AA") ? "BB" : "AA");
+
+        assertThrows(JwtException.class, () -> jwtUtils.verifyToken(tampered));
+        assertTrue(jwtUtils.parseVerifiedClaims(tampered).isEmpty());
+    }
+
+    @Test
+    void verifyToken_Throws_WhenExpired() {
+        String token = newJwtUtils(-1000).generateTokenFromEmail("test@example.com");
+
+        assertThrows(ExpiredJwtException.class, () -> jwtUtils.verifyToken(token));
+        assertFalse(jwtUtils.validateJwtToken(token));
+    }
+
+    @Test
+    void parseVerifiedClaims_ReturnsEmpty_WhenMalformed() {
+        assertTrue(jwtUtils.parseVerifiedClaims("not-a-jwt").isEmpty());
+        assertTrue(jwtUtils.parseVerifiedClaims("").isEmpty());
+    }
+
+    @Test
+    void compactToken_IsShorterThanLegacyLayout_AndStillReadsLegacy() {
+        UserDetailsImpl userDetails =
+                new UserDetailsImpl(1L, "testuser", "test@example.com", "encodedPass", "Student", null);
+        Date now = new Date();
+        String legacy = Jwts.builder()
+                .setSubject("test@example.com")
+                .claim("uid", 1L)
+                .claim("username", "testuser")
+                .claim("role", "Student")
+                .setIssuedAt(now)
+                .setExpiration(new Date(now.getTime() + 3_600_000))
+                .signWith(Keys.hmacShaKeyFor(SECRET.getBytes()), SignatureAlgorithm.HS256)
+                .compact();
+
+        String compact = jwtUtils.generateJwtToken(userDetails);
+
+        VerifiedClaims fromLegacy = jwtUtils.verifyToken(legacy);
+        VerifiedClaims fromCompact = jwtUtils.verifyToken(compact);
+
+        assertTrue(compact.length() < legacy.length());
+        assertEquals(fromLegacy.userId(), fromCompact.userId());
+        assertEquals(fromLegacy.username(), fromCompact.username());
+        assertEquals(fromLegacy.role(), fromCompact.role());
+    }
+
+    @Test
+    void issueAll_IssuesOneVerifiableTokenPerPrincipal() {
+        AccessTokenIssuer issuer = (AccessTokenIssuer) ReflectionTestUtils.getField(jwtUtils, "issuer");
+        List<AccessTokenIssuer.Principal> principals = List.of(
+                new AccessTokenIssuer.Principal(1L, "a@example.com", "a", "Service"),
+                new AccessTokenIssuer.Principal(2L, "b@example.com", "b", "Service"));
+
+        List<IssuedToken> tokens = issuer.issueAll(principals);
+
+        assertEquals(2, tokens.size());
+        assertEquals(1L, jwtUtils.verifyToken(tokens.get(0).token()).userId());
+        assertEquals("b@example.com", jwtUtils.verifyToken(tokens.get(1).token()).email());
+    }
+}
@@ -0,0 +1,76 @@
+package com.tgp2.auth.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Simulates a login wave: every client logs in during the same second and then refreshes at its
+ * token's refresh hint, receiving a new token with a new hint, for several generations. Compares
+ * the busiest second of refresh traffic with and without jitter.
+ */
+class RefreshStormSimulationTest {
+
+    private static final byte[] SECRET = "357638792F423F4428472B4B6250655368566D597133743677397A2443264629".getBytes();
+    private static final int CLIENTS = 5_000;
+    private static final int GENERATIONS = 3;
+    private static final long HOUR_MS = 3_600_000;
+
+    private static final List<AccessTokenIssuer.Principal> PRINCIPALS = LongStream.rangeClosed(1, CLIENTS)
+            .mapToObj(id -> new AccessTokenIssuer.Principal(id, "user" + id + "@example.com", "user" + id, "Student"))
+            .toList();
+
+    /**
+     * @return refreshes per second of simulated time
+     */
+    private static Map<Long, Integer> simulate(AccessTokenIssuer issuer) {
+        Instant loginWave = Instant.parse("2026-01-05T08:00:00Z");
+        Map<Long, Integer> perSecond = new HashMap<>();
+        for (int client = 0; client < CLIENTS; client++) {
+            AccessTokenIssuer.Principal principal = PRINCIPALS.get(client);
+            IssuedToken token = issuer.issueAll(List.of(principal), loginWave).get(0);
+            for (int generation = 0; generation < GENERATIONS; generation++) {
+                Instant refreshAt = token.refreshAfter();
+                perSecond.merge(refreshAt.getEpochSecond(), 1, Integer::sum);
+                token = issuer.issueAll(List.of(principal), refreshAt).get(0);
+            }
+        }
+        return perSecond;
+    }
+
+    @Test
+    void jitter_SpreadsRefreshTraffic() {
+        Map<Long, Integer> fixed = simulate(new AccessTokenIssuer(TokenSigner.hmac(SECRET), HOUR_MS, 0, 0, true));
+        Map<Long, Integer> jittered = simulate(new AccessTokenIssuer(TokenSigner.hmac(SECRET), HOUR_MS, 300_000, 300_000, true));
+
+        int fixedPeak = Collections.max(fixed.values());
+        int jitteredPeak = Collections.max(jittered.values());
+
+        // without jitter every client refreshes in the same second, generation after generation
+        assertEquals(CLIENTS, fixedPeak);
+        assertEquals(GENERATIONS, fixed.size());
+        // with 5 min jitter and a 5 min refresh window the first wave alone spans ~600 s
+        assertTrue(jitteredPeak < CLIENTS / 50, "peak refreshes per second: " + jitteredPeak);
+        assertTrue(jittered.size() > 1_000, "distinct seconds with refreshes: " + jittered.size());
+    }
+
+    @Test
+    void refreshHint_FallsBeforeExpiry_AndLifetimeNeverExceedsConfigured() {
+        AccessTokenIssuer issuer = new AccessTokenIssuer(TokenSigner.hmac(SECRET), HOUR_MS, 300_000, 300_000, true);
+        Instant now = Instant.parse("2026-01-05T08:00:00Z");
+
+        for (IssuedToken token : issuer.issueAll(PRINCIPALS.subList(0, 500), now)) {
+            assertFalse(token.expiresAt().isAfter(now.plusMillis(HOUR_MS)));
+            assertFalse(token.expiresAt().isBefore(now.plusMillis(HOUR_MS - 300_000)));
+            assertFalse(token.refreshAfter().isAfter(token.expiresAt()));
+            assertFalse(token.refreshAfter().isBefore(token.expiresAt().minusSeconds(300)));
+        }
+    }
+}
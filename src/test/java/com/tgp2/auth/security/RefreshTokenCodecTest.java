@@ -0,0 +1,53 @@
+package com.tgp2.auth.security;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RefreshTokenCodecTest {
+
+    private RefreshTokenCodec codec;
+
+    @BeforeEach
+    void setup() {
+        codec = new RefreshTokenCodec();
+        ReflectionTestUtils.setField(codec, "secret", "357638792F423F4428472B4B6250655368566D597133743677397A2443264629");
+        ReflectionTestUtils.invokeMethod(codec, "init");
+    }
+
+    @Test
+    void verify_ReturnsEmbeddedExpiry_ForIssuedToken() {
+        Instant expiry = Instant.parse("2030-01-01T00:00:00Z");
+
+        String token = codec.issue(expiry);
+
+        assertEquals(expiry, codec.verify(token).orElseThrow());
+        assertNotEquals(token, codec.issue(expiry), "tokens with the same expiry must still be unique");
+    }
+
+    @Test
+    void verify_RejectsMalformedAndForgedTokens() {
+        String token = codec.issue(Instant.parse("2030-01-01T00:00:00Z"));
+        char last = token.charAt(token.length() - 2);
+        String forged = token.substring(0, token.length() - 2) + (last == 'A' ? 'B' : 'A') + token.charAt(token.length() - 1);
+
+        assertTrue(codec.verify(forged).isEmpty());
+        assertTrue(codec.verify("6f1c1f0e-6f0a-4a59-a1f4-0c2d0b8a9a51").isEmpty());
+        assertTrue(codec.verify("").isEmpty());
+        assertTrue(codec.verify(null).isEmpty());
+        assertTrue(codec.verify("!".repeat(32) + "." + "!".repeat(43)).isEmpty());
+    }
+
+    @Test
+    void hash_IsStableHexSha256() {
+        String token = codec.issue(Instant.parse("2030-01-01T00:00:00Z"));
+
+        assertEquals(64, codec.hash(token).length());
+        assertEquals(codec.hash(token), codec.hash(token));
+        assertNotEquals(token, codec.hash(token));
+    }
+}
@@ -0,0 +1,70 @@
+package com.tgp2.auth.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VerifiedTokenCacheTest {
+
+    private static final String SECRET = "357638792F423F4428472B4B6250655368566D597133743677397A2443264629";
+
+    private VerifiedTokenCache cache;
+    private JwtUtils jwtUtils;
+
+    @BeforeEach
+    void setup() {
+        cache = new VerifiedTokenCache(new SimpleMeterRegistry(), 100);
+        jwtUtils = new JwtUtils();
+        ReflectionTestUtils.setField(jwtUtils, "jwtSecret", SECRET);
+        ReflectionTestUtils.setField(jwtUtils, "jwtExpirationMs", 3_600_000);
+        ReflectionTestUtils.setField(jwtUtils, "verifiedTokenCache", cache);
+        jwtUtils.init();
+    }
+
+    @Test
+    void verifyToken_PopulatesCache_AndReusesClaims() {
+        String token = jwtUtils.generateTokenFromEmail("test@example.com");
+
+        VerifiedClaims first = jwtUtils.verifyToken(token);
+
+        assertSame(first, cache.get(token));
+        assertSame(first, jwtUtils.verifyToken(token));
+    }
+
+    @Test
+    void get_Misses_WhenPayloadDiffersButSignatureMatches() {
+        String token = jwtUtils.generateTokenFromEmail("test@example.com");
+        jwtUtils.verifyToken(token);
+        String other = jwtUtils.generateTokenFromEmail("other@example.com");
+        String forged = other.substring(0, other.lastIndexOf('.')) + token.substring(token.lastIndexOf('.'));
+
+        assertNull(cache.get(forged));
+        assertTrue(jwtUtils.parseVerifiedClaims(forged).isEmpty());
+    }
+
+    @Test
+    void get_Misses_WhenTokenHasExpired() {
+        String token = jwtUtils.generateTokenFromEmail("test@example.com");
+        VerifiedClaims expired = new VerifiedClaims("test@example.com", null, null, null,
+                Instant.now().minusSeconds(60), Instant.now().minusSeconds(1));
+
+        cache.put(token, expired);
+
+        assertNull(cache.get(token));
+    }
+
+    @Test
+    void disabledCache_NeverHits() {
+        VerifiedTokenCache disabled = new VerifiedTokenCache(new SimpleMeterRegistry(), 0);
+        String token = jwtUtils.generateTokenFromEmail("test@example.com");
+
+        disabled.put(token, jwtUtils.verifyToken(token));
+
+        assertNull(disabled.get(token));
+    }
+}
@@ -2,15 +2,20 @@ package com.tgp2.auth.service;
 import com.tgp2.auth.dto.*;
 import com.tgp2.auth.entity.RefreshToken;
 import com.tgp2.auth.entity.User;
+import com.tgp2.auth.exception.PasswordHashingBusyException;
 import com.tgp2.auth.exception.TokenRefreshException;
 import com.tgp2.auth.repository.UserRepository;
+import com.tgp2.auth.security.AccessTokenDenylist;
+import com.tgp2.auth.security.IssuedToken;
 import com.tgp2.auth.security.JwtUtils;
 import com.tgp2.auth.security.UserDetailsImpl;
+import com.tgp2.auth.security.VerifiedClaims;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -18,6 +23,7 @@ import org.springframework.security.authentication.UsernamePasswordAuthenticatio
 import org.springframework.security.core.Authentication;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
+import java.sql.SQLIntegrityConstraintViolationException;
 import java.time.Instant;
 import java.util.Date;
 import java.util.Optional;
@@ -42,8 +48,6 @@ class AuthServiceTest {
         // Arrange
         SignupRequest request = new SignupRequest("testuser", "test@example.com", "password123","Student");
 
-        when(userRepository.existsByEmail("test@example.com")).thenReturn(false);
-        when(userRepository.existsByUsername("testuser")).thenReturn(false);
         when(passwordEncoder.encode("password123")).thenReturn("encodedPass");
 
         // Act
@@ -53,6 +57,8 @@ class AuthServiceTest {
         assertEquals("User registered successfully!", response);
         verify(passwordEncoder).encode("password123");
         verify(userRepository).save(any(User.class));
+        verify(userRepository, never()).existsByEmail(anyString());
+        verify(userRepository, never()).existsByUsername(anyString());
     }
 
     @Test
@@ -60,14 +66,15 @@ class AuthServiceTest {
         // Arrange
         SignupRequest request = new SignupRequest("testuser", "test@example.com", "password123","Student");
 
-        when(userRepository.existsByEmail("test@example.com")).thenReturn(true);
+        when(userRepository.save(any(User.class)))
+                .thenThrow(duplicateEntry("test@example.com"));
 
         // Act & Assert
         RuntimeException exception = assertThrows(RuntimeException.class,
                 () -> authService.registerUser(request));
 
         assertEquals("Email already in use", exception.getMessage());
-        verify(userRepository, never()).save(any(User.class));
+        verify(userRepository, never()).existsByEmail(anyString());
     }
 
     @Test
@@ -75,15 +82,47 @@ class AuthServiceTest {
         // Arrange
         SignupRequest request = new SignupRequest("testuser", "test@example.com", "password123","Student");
 
-        when(userRepository.existsByEmail("test@example.com")).thenReturn(false);
-        when(userRepository.existsByUsername("testuser")).thenReturn(true);
+        when(userRepository.save(any(User.class)))
+                .thenThrow(duplicateEntry("testuser"));
 
         // Act & Assert
         RuntimeException exception = assertThrows(RuntimeException.class,
                 () -> authService.registerUser(request));
 
         assertEquals("Username already in use", exception.getMessage());
-        verify(userRepository, never()).save(any(User.class));
+        verify(userRepository, never()).existsByEmail(anyString());
+    }
+
+    @Test
+    void registerUser_AmbiguousDuplicate_FallsBackToLookup() {
+        // Arrange
+        SignupRequest request = new SignupRequest("testuser", "test@example.com", "password123","Student");
+
+        when(userRepository.save(any(User.class)))
+                .thenThrow(new DataIntegrityViolationException("could not execute statement",
+                        new SQLIntegrityConstraintViolationException("Duplicate entry", "23000", 1062)));
+        when(userRepository.existsByEmail("test@example.com")).thenReturn(true);
+
+        // Act & Assert
+        RuntimeException exception = assertThrows(RuntimeException.class,
+                () -> authService.registerUser(request));
+
+        assertEquals("Email already in use", exception.getMessage());
+    }
+
+    @Test
+    void registerUser_OtherIntegrityViolation_IsNotReportedAsDuplicate() {
+        // Arrange
+        SignupRequest request = new SignupRequest("testuser", "test@example.com", "password123", null);
+        DataIntegrityViolationException notNull = new DataIntegrityViolationException("could not execute statement",
+                new SQLIntegrityConstraintViolationException("Column 'role' cannot be null", "23000", 1048));
+
+        when(userRepository.save(any(User.class))).thenThrow(notNull);
+
+        // Act & Assert
+        DataIntegrityViolationException exception = assertThrows(DataIntegrityViolationException.class,
+                () -> authService.registerUser(request));
+        assertSame(notNull, exception);
     }
 
     @Test
@@ -91,8 +130,6 @@ class AuthServiceTest {
         // Arrange
         SignupRequest request = new SignupRequest("testuser", "test@example.com", "password123","Student");
 
-        when(userRepository.existsByEmail("test@example.com")).thenReturn(false);
-        when(userRepository.existsByUsername("testuser")).thenReturn(false);
         when(passwordEncoder.encode("password123")).thenReturn("encodedPass");
 
         // Act
@@ -102,6 +139,12 @@ class AuthServiceTest {
         verify(passwordEncoder).encode("password123");
     }
 
+    private static DataIntegrityViolationException duplicateEntry(String value) {
+        return new DataIntegrityViolationException("could not execute statement",
+                new SQLIntegrityConstraintViolationException(
+                        "Duplicate entry '" + value + "' for key 'users.UK_generated'", "23000", 1062));
+    }
+
 
     //---------------------------------Login Service-------------------------------------//
     @Mock
@@ -113,6 +156,12 @@ class AuthServiceTest {
     @Mock
     private RefreshTokenService refreshTokenService;
 
+    @Mock
+    private PasswordUpgradeService passwordUpgradeService;
+
+    @Mock
+    private AccessTokenDenylist accessTokenDenylist;
+
 
     @Test
     void loginUser_Success() {
@@ -127,7 +176,8 @@ class AuthServiceTest {
                 .thenReturn(authentication);
         when(authentication.getPrincipal()).thenReturn(userDetails);
 
-        when(jwtUtils.generateJwtToken(userDetails)).thenReturn("jwt-token");
+        IssuedToken issued = new IssuedToken("jwt-token", Instant.now().plusSeconds(3600), Instant.now().plusSeconds(3300));
+        when(jwtUtils.issueAccessToken(userDetails)).thenReturn(issued);
 
         RefreshToken mockRefreshToken = new RefreshToken();
         mockRefreshToken.setId(100L);
@@ -146,9 +196,11 @@ class AuthServiceTest {
         JwtResponse jwtResponse = (JwtResponse) response.getBody();
         assertEquals("jwt-token", jwtResponse.getAccessToken());
         assertEquals("Bearer", jwtResponse.getTokenType());
+        assertEquals(issued.refreshAfter(), jwtResponse.getRefreshAfter());
 
-        verify(jwtUtils).generateJwtToken(userDetails);
+        verify(jwtUtils).issueAccessToken(userDetails);
         verify(refreshTokenService).createRefreshToken(1L);
+        verify(passwordUpgradeService).upgradeIfNeeded(userDetails, "password123");
     }
 
     @Test
@@ -166,7 +218,18 @@ class AuthServiceTest {
         assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
         assertEquals("User not found.", response.getBody());
 
-        verify(jwtUtils, never()).generateJwtToken(any());
+        verify(jwtUtils, never()).issueAccessToken(any(UserDetailsImpl.class));
+        verify(refreshTokenService, never()).createRefreshToken(anyLong());
+    }
+
+    @Test
+    void loginUser_PropagatesBusy_WhenHashingSaturated() {
+        LoginRequest loginRequest = new LoginRequest("test@example.com", "password123");
+
+        when(authenticationManager.authenticate(any(UsernamePasswordAuthenticationToken.class)))
+                .thenThrow(new PasswordHashingBusyException(1));
+
+        assertThrows(PasswordHashingBusyException.class, () -> authService.loginUser(loginRequest));
         verify(refreshTokenService, never()).createRefreshToken(anyLong());
     }
 
@@ -181,15 +244,16 @@ class AuthServiceTest {
         when(authenticationManager.authenticate(any(UsernamePasswordAuthenticationToken.class)))
                 .thenReturn(authentication);
         when(authentication.getPrincipal()).thenReturn(userDetails);
-        when(jwtUtils.generateJwtToken(userDetails)).thenReturn("jwt-token");
+        when(jwtUtils.issueAccessToken(userDetails))
+                .thenReturn(new IssuedToken("jwt-token", Instant.now().plusSeconds(3600), Instant.now().plusSeconds(3300)));
         when(refreshTokenService.createRefreshToken(1L))
-                .thenReturn(new RefreshToken(1L, userDetails.getId().toString(), Instant.parse("2025-09-25T10:15:30Z"), null));
+                .thenReturn(new RefreshToken(1L, userDetails.getId().toString(), "hash", Instant.parse("2025-09-25T10:15:30Z"), null));
 
         // Act
         authService.loginUser(loginRequest);
 
         // Assert
-        verify(jwtUtils, times(1)).generateJwtToken(userDetails);
+        verify(jwtUtils, times(1)).issueAccessToken(userDetails);
         verify(refreshTokenService, times(1)).createRefreshToken(1L);
     }
 
@@ -213,7 +277,8 @@ class AuthServiceTest {
 
         when(refreshTokenService.findByToken(requestRefreshToken)).thenReturn(Optional.of(refreshToken));
         when(refreshTokenService.verifyExpiration(refreshToken)).thenReturn(refreshToken);
-        when(jwtUtils.generateTokenFromEmail("test@example.com")).thenReturn("new-jwt-token");
+        when(jwtUtils.issueAccessToken(user))
+                .thenReturn(new IssuedToken("new-jwt-token", Instant.now().plusSeconds(3600), Instant.now().plusSeconds(3300)));
 
         // Act
         ResponseEntity<?> response = authService.getRefreshToken(requestRefreshToken);
@@ -224,8 +289,9 @@ class AuthServiceTest {
         TokenRefreshResponse tokenResponse = (TokenRefreshResponse) response.getBody();
         assertEquals("new-jwt-token", tokenResponse.getAccessToken());
         assertEquals(requestRefreshToken, tokenResponse.getRefreshToken());
+        assertNotNull(tokenResponse.getRefreshAfter());
 
-        verify(jwtUtils).generateTokenFromEmail("test@example.com");
+        verify(jwtUtils).issueAccessToken(user);
     }
 
     @Test
@@ -238,7 +304,7 @@ class AuthServiceTest {
         TokenRefreshException exception = assertThrows(TokenRefreshException.class,
                 () -> authService.getRefreshToken(requestRefreshToken));
         assertEquals("Failed for ["+requestRefreshToken+"]: Refresh token is not in database!", exception.getMessage());
-        verify(jwtUtils, never()).generateTokenFromEmail(anyString());
+        verify(jwtUtils, never()).issueAccessToken(any(User.class));
     }
 
     @Test
@@ -262,7 +328,7 @@ class AuthServiceTest {
         TokenRefreshException exception = assertThrows(TokenRefreshException.class,
                 () -> authService.getRefreshToken(requestRefreshToken));
         assertEquals("Failed for ["+requestRefreshToken+"]: Refresh token expired", exception.getMessage());
-        verify(jwtUtils, never()).generateTokenFromEmail(anyString());
+        verify(jwtUtils, never()).issueAccessToken(any(User.class));
     }
 
     //----------------------------------Logout user ----------------------//
@@ -301,4 +367,23 @@ class AuthServiceTest {
 
         verify(refreshTokenService, never()).deleteByUser(any(User.class));
     }
-}
\ No newline at end of file
+
+    @Test
+    void logoutUser_RevokesAccessTokenUntilItExpires() {
+        User user = new User();
+        user.setId(1L);
+        UserDetailsImpl userDetails = new UserDetailsImpl(
+                1L, "testuser", "test@example.com", "encodedPass", "Student", null
+        );
+        userDetails.setUser(user);
+        Instant expiresAt = Instant.now().plusSeconds(600);
+        when(jwtUtils.parseVerifiedClaims("access-token")).thenReturn(Optional.of(
+                new VerifiedClaims("test@example.com", 1L, "testuser", "Student", Instant.now(), expiresAt)));
+
+        ResponseEntity<ApiResponse> response = authService.logoutUser(userDetails, "access-token");
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        verify(accessTokenDenylist).revoke("access-token", expiresAt);
+        verify(refreshTokenService).deleteByUser(user);
+    }
+}
@@ -0,0 +1,133 @@
+package com.tgp2.auth.service;
+
+import com.tgp2.auth.dto.LoginRequest;
+import com.tgp2.auth.entity.RefreshToken;
+import com.tgp2.auth.entity.User;
+import com.tgp2.auth.entity.UserCacheInvalidationListener;
+import com.tgp2.auth.repository.UserRepository;
+import com.tgp2.auth.security.AccessTokenDenylist;
+import com.tgp2.auth.security.IssuedToken;
+import com.tgp2.auth.security.JwtUtils;
+import com.tgp2.auth.security.RefreshTokenCodec;
+import com.tgp2.auth.security.UserDetailsCache;
+import com.tgp2.auth.security.UserDetailsImpl;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.authentication.ProviderManager;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Guards the number of SQL statements a login issues: one user read (authentication),
+ * one refresh-token insert and one statement enforcing the per-user session cap. The login
+ * runs through {@link AuthService#loginUser} with its real repository, authentication and
+ * refresh-token wiring; only token signing and the background rehash, which issue no SQL on
+ * the request path, are mocked.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@Import({UserDetailsServiceImpl.class, RefreshTokenService.class, RefreshTokenCodec.class, UserDetailsCache.class,
+        UserCacheInvalidationListener.class, LoginStatementCountTest.MetricsConfig.class})
+class LoginStatementCountTest {
+
+    @TestConfiguration
+    static class MetricsConfig {
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+
+    @Autowired private TestEntityManager entityManager;
+    @Autowired private EntityManagerFactory entityManagerFactory;
+    @Autowired private UserDetailsServiceImpl userDetailsService;
+    @Autowired private RefreshTokenService refreshTokenService;
+    @Autowired private UserRepository userRepository;
+
+    private final BCryptPasswordEncoder passwordEncoder = new BCryptPasswordEncoder(4);
+    private AuthService authService;
+    private Statistics statistics;
+
+    @BeforeEach
+    void setup() {
+        entityManager.persist(User.builder()
+                .username("testuser")
+                .email("test@example.com")
+                .password(passwordEncoder.encode("password123"))
+                .role("Student")
+                .build());
+        entityManager.flush();
+        entityManager.clear();
+
+        DaoAuthenticationProvider provider = new DaoAuthenticationProvider();
+        provider.setUserDetailsService(userDetailsService);
+        provider.setPasswordEncoder(passwordEncoder);
+        JwtUtils jwtUtils = mock(JwtUtils.class);
+        when(jwtUtils.issueAccessToken(any(UserDetailsImpl.class))).thenReturn(
+                new IssuedToken("access", Instant.now().plusSeconds(900), Instant.now().plusSeconds(600)));
+        authService = new AuthService(new ProviderManager(provider), userRepository, passwordEncoder, jwtUtils,
+                refreshTokenService, mock(PasswordUpgradeService.class), mock(AccessTokenDenylist.class));
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @AfterEach
+    void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void login_IssuesOneUserReadOneTokenWriteAndOneCapTrim() {
+        ResponseEntity<?> response = authService.loginUser(new LoginRequest("test@example.com", "password123"));
+        entityManager.flush();
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertNotNull(response.getHeaders().getFirst(HttpHeaders.SET_COOKIE));
+        assertEquals(3, statistics.getPrepareStatementCount(),
+                "login should run one user SELECT, one refresh-token INSERT and one cap DELETE");
+        assertEquals(1, statistics.getEntityInsertCount());
+    }
+
+    @Test
+    void createRefreshToken_EvictsOldestBeyondCap() {
+        ReflectionTestUtils.setField(refreshTokenService, "maxSessionsPerUser", 2);
+        Long userId = ((UserDetailsImpl) userDetailsService.loadUserByUsername("test@example.com")).getId();
+
+        refreshTokenService.createRefreshToken(userId);
+        refreshTokenService.createRefreshToken(userId);
+        RefreshToken newest = refreshTokenService.createRefreshToken(userId);
+        entityManager.flush();
+        entityManager.clear();
+
+        var sessions = refreshTokenService.listActiveSessions(userId);
+        assertEquals(2, sessions.size());
+        assertTrue(sessions.stream().anyMatch(session -> session.getId().equals(newest.getId())));
+    }
+}
@@ -0,0 +1,92 @@
+package com.tgp2.auth.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PaperRatingSummaryRebuilderTest {
+
+    @Mock private JdbcTemplate jdbcTemplate;
+    @Mock private TransactionTemplate transactionTemplate;
+
+    private PaperRatingSummaryRebuilder rebuilder;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setup() {
+        rebuilder = new PaperRatingSummaryRebuilder(jdbcTemplate, transactionTemplate, new SimpleMeterRegistry(), 10, 1);
+        lenient().doAnswer(inv -> {
+            ((Consumer<TransactionStatus>) inv.getArgument(0)).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+    }
+
+    @AfterEach
+    void tearDown() {
+        rebuilder.shutdown();
+    }
+
+    private void papers(long min, long max) {
+        when(jdbcTemplate.queryForMap(anyString())).thenReturn(Map.of("min_id", min, "max_id", max));
+    }
+
+    @Test
+    void rebuild_LocksTheChunksSummaryRows_BeforeRebuildingThem() {
+        papers(1, 5);
+        when(jdbcTemplate.queryForList(PaperRatingSummaryRebuilder.LOCK_SQL, Long.class, 1L, 5L)).thenReturn(List.of());
+
+        assertEquals(1, rebuilder.rebuild());
+
+        InOrder order = inOrder(jdbcTemplate);
+        order.verify(jdbcTemplate).queryForList(PaperRatingSummaryRebuilder.LOCK_SQL, Long.class, 1L, 5L);
+        order.verify(jdbcTemplate).update(contains("INSERT INTO paper_rating_summary"), eq(1L), eq(5L));
+        order.verify(jdbcTemplate).update(contains("DELETE FROM paper_rating_summary"), eq(1L), eq(5L), eq(1L), eq(5L));
+    }
+
+    @Test
+    void rebuild_RetriesAChunkThatLostALockConflict() {
+        papers(1, 5);
+        when(jdbcTemplate.queryForList(PaperRatingSummaryRebuilder.LOCK_SQL, Long.class, 1L, 5L))
+                .thenThrow(new CannotAcquireLockException("Deadlock found"))
+                .thenReturn(List.of());
+
+        assertEquals(1, rebuilder.rebuild());
+
+        verify(transactionTemplate, times(2)).executeWithoutResult(any());
+        verify(jdbcTemplate, times(1)).update(contains("INSERT INTO paper_rating_summary"), eq(1L), eq(5L));
+    }
+
+    @Test
+    void rebuild_AChunkThatKeepsFailing_DoesNotStopTheOthers() {
+        papers(1, 20);
+        when(jdbcTemplate.queryForList(PaperRatingSummaryRebuilder.LOCK_SQL, Long.class, 1L, 10L))
+                .thenThrow(new CannotAcquireLockException("Lock wait timeout exceeded"));
+        when(jdbcTemplate.queryForList(PaperRatingSummaryRebuilder.LOCK_SQL, Long.class, 11L, 20L))
+                .thenReturn(List.of());
+
+        assertEquals(1, rebuilder.rebuild());
+
+        verify(jdbcTemplate, times(PaperRatingSummaryRebuilder.MAX_ATTEMPTS))
+                .queryForList(PaperRatingSummaryRebuilder.LOCK_SQL, Long.class, 1L, 10L);
+        verify(jdbcTemplate).update(contains("INSERT INTO paper_rating_summary"), eq(11L), eq(20L));
+        verify(jdbcTemplate, never()).update(contains("INSERT INTO paper_rating_summary"), eq(1L), eq(10L));
+    }
+}
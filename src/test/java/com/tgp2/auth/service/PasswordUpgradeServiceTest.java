@@ -0,0 +1,78 @@
+package com.tgp2.auth.service;
+
+import com.tgp2.auth.repository.UserRepository;
+import com.tgp2.auth.security.BoundedPasswordEncoder;
+import com.tgp2.auth.security.PasswordHashingExecutor;
+import com.tgp2.auth.security.UserDetailsCache;
+import com.tgp2.auth.security.UserDetailsImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PasswordUpgradeServiceTest {
+
+    @Mock private BoundedPasswordEncoder passwordEncoder;
+    @Mock private PasswordEncoder unboundedEncoder;
+    @Mock private PasswordHashingExecutor passwordHashingExecutor;
+    @Mock private UserRepository userRepository;
+    @Mock private UserDetailsCache userDetailsCache;
+
+    private SimpleMeterRegistry meterRegistry;
+    private PasswordUpgradeService upgradeService;
+    private UserDetailsImpl user;
+
+    @BeforeEach
+    void setup() {
+        meterRegistry = new SimpleMeterRegistry();
+        upgradeService = new PasswordUpgradeService(passwordEncoder, passwordHashingExecutor,
+                userRepository, userDetailsCache, meterRegistry);
+        user = new UserDetailsImpl(1L, "testuser", "test@example.com", "$2a$10$oldhash", "Student", null);
+    }
+
+    @Test
+    void upgradeIfNeeded_RehashesInBackground_WhenHashIsOutdated() {
+        when(passwordEncoder.upgradeEncoding("$2a$10$oldhash")).thenReturn(true);
+        when(passwordEncoder.unbounded()).thenReturn(unboundedEncoder);
+        when(unboundedEncoder.encode("password123")).thenReturn("{bcrypt}$2a$12$newhash");
+        when(userRepository.updatePasswordHash(1L, "$2a$10$oldhash", "{bcrypt}$2a$12$newhash")).thenReturn(1);
+        when(passwordHashingExecutor.trySubmit(any())).thenAnswer(inv -> {
+            inv.<Runnable>getArgument(0).run();
+            return true;
+        });
+
+        upgradeService.upgradeIfNeeded(user, "password123");
+
+        verify(userRepository).updatePasswordHash(1L, "$2a$10$oldhash", "{bcrypt}$2a$12$newhash");
+        verify(userDetailsCache).evict(1L, "test@example.com");
+        assertEquals(1.0, meterRegistry.get("auth.password.upgrades").tag("result", "upgraded").counter().count());
+    }
+
+    @Test
+    void upgradeIfNeeded_DoesNothing_WhenHashIsCurrent() {
+        when(passwordEncoder.upgradeEncoding("$2a$10$oldhash")).thenReturn(false);
+
+        upgradeService.upgradeIfNeeded(user, "password123");
+
+        verifyNoInteractions(passwordHashingExecutor, userRepository);
+    }
+
+    @Test
+    void upgradeIfNeeded_Defers_WhenHashingPoolIsSaturated() {
+        when(passwordEncoder.upgradeEncoding("$2a$10$oldhash")).thenReturn(true);
+        when(passwordHashingExecutor.trySubmit(any())).thenReturn(false);
+
+        upgradeService.upgradeIfNeeded(user, "password123");
+
+        verifyNoInteractions(userRepository);
+        assertEquals(1.0, meterRegistry.get("auth.password.upgrades").tag("result", "deferred").counter().count());
+    }
+}
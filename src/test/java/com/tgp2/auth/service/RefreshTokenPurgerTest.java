@@ -0,0 +1,58 @@
+package com.tgp2.auth.service;
+
+import com.tgp2.auth.repository.RefreshTokenRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RefreshTokenPurgerTest {
+
+    @Mock
+    private RefreshTokenRepository refreshTokenRepository;
+
+    private SimpleMeterRegistry meterRegistry;
+    private RefreshTokenPurger purger;
+
+    @BeforeEach
+    void setup() {
+        meterRegistry = new SimpleMeterRegistry();
+        purger = new RefreshTokenPurger(refreshTokenRepository, meterRegistry);
+        ReflectionTestUtils.setField(purger, "enabled", true);
+        ReflectionTestUtils.setField(purger, "batchSize", 100);
+        ReflectionTestUtils.setField(purger, "pauseMs", 0L);
+        ReflectionTestUtils.setField(purger, "maxBatchesPerRun", 10);
+    }
+
+    @Test
+    void purgeExpired_DeletesInBatchesUntilAPartialBatch() {
+        when(refreshTokenRepository.deleteExpiredBatch(any(Instant.class), eq(100)))
+                .thenReturn(100, 100, 7);
+
+        purger.purgeExpired();
+
+        verify(refreshTokenRepository, times(3)).deleteExpiredBatch(any(Instant.class), eq(100));
+        assertEquals(207.0, meterRegistry.get("auth.refresh_tokens.purged").counter().count());
+        assertEquals(3, meterRegistry.get("auth.refresh_tokens.purge.batch").timer().count());
+    }
+
+    @Test
+    void purgeExpired_StopsAtMaxBatchesPerRun() {
+        when(refreshTokenRepository.deleteExpiredBatch(any(Instant.class), eq(100))).thenReturn(100);
+
+        purger.purgeExpired();
+
+        verify(refreshTokenRepository, times(10)).deleteExpiredBatch(any(Instant.class), eq(100));
+    }
+}
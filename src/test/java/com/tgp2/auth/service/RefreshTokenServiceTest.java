@@ -0,0 +1,117 @@
+package com.tgp2.auth.service;
+
+import com.tgp2.auth.entity.RefreshToken;
+import com.tgp2.auth.entity.User;
+import com.tgp2.auth.exception.TokenRefreshException;
+import com.tgp2.auth.repository.RefreshTokenRepository;
+import com.tgp2.auth.repository.UserRepository;
+import com.tgp2.auth.security.RefreshTokenCodec;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RefreshTokenServiceTest {
+
+    @Mock private RefreshTokenRepository refreshTokenRepository;
+    @Mock private UserRepository userRepository;
+
+    private RefreshTokenCodec codec;
+    private RefreshTokenService refreshTokenService;
+
+    @BeforeEach
+    void setup() {
+        codec = new RefreshTokenCodec();
+        ReflectionTestUtils.setField(codec, "secret", "357638792F423F4428472B4B6250655368566D597133743677397A2443264629");
+        ReflectionTestUtils.invokeMethod(codec, "init");
+
+        refreshTokenService = new RefreshTokenService(refreshTokenRepository, userRepository, codec, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(refreshTokenService, "refreshTokenDurationMs", 86_400_000L);
+        ReflectionTestUtils.setField(refreshTokenService, "maxSessionsPerUser", 5);
+    }
+
+    @Test
+    void createRefreshToken_StoresOnlyTheHash() {
+        User user = new User();
+        user.setId(1L);
+        when(userRepository.getReferenceById(1L)).thenReturn(user);
+        when(refreshTokenRepository.save(any(RefreshToken.class))).thenAnswer(inv -> inv.getArgument(0));
+
+        RefreshToken issued = refreshTokenService.createRefreshToken(1L);
+
+        assertNotNull(issued.getToken());
+        assertEquals(codec.hash(issued.getToken()), issued.getTokenHash());
+        assertEquals(issued.getExpiryDate(), codec.verify(issued.getToken()).orElseThrow());
+        verify(userRepository, never()).findById(any());
+        verify(refreshTokenRepository).trimToNewest(1L, 5);
+    }
+
+    @Test
+    void findByToken_RejectsGarbageWithoutQuery() {
+        assertTrue(refreshTokenService.findByToken("not-a-refresh-token").isEmpty());
+
+        verify(refreshTokenRepository, never()).findByTokenHash(anyString());
+    }
+
+    @Test
+    void findByToken_RejectsExpiredWithoutQuery() {
+        String expired = codec.issue(Instant.now().minusSeconds(60));
+
+        assertThrows(TokenRefreshException.class, () -> refreshTokenService.findByToken(expired));
+        verify(refreshTokenRepository, never()).findByTokenHash(anyString());
+    }
+
+    private RefreshToken stored(String token) {
+        User user = User.builder().id(1L).username("testuser").email("test@example.com").role("Student").build();
+        return RefreshToken.builder().id(7L).tokenHash(codec.hash(token))
+                .expiryDate(codec.verify(token).orElseThrow()).user(user).build();
+    }
+
+    @Test
+    void findByToken_LooksUpValidTokenByHash() {
+        String token = codec.issue(Instant.now().plusSeconds(3600));
+        when(refreshTokenRepository.findByTokenHash(codec.hash(token))).thenReturn(Optional.of(stored(token)));
+
+        RefreshToken found = refreshTokenService.findByToken(token).orElseThrow();
+
+        assertEquals(token, found.getToken());
+        assertEquals(7L, found.getId());
+        assertEquals("test@example.com", found.getUser().getEmail());
+    }
+
+    @Test
+    void findByToken_HandsOutACopy_NeverTheLoadedEntity() {
+        String token = codec.issue(Instant.now().plusSeconds(3600));
+        RefreshToken stored = stored(token);
+        when(refreshTokenRepository.findByTokenHash(codec.hash(token))).thenReturn(Optional.of(stored));
+
+        RefreshToken first = refreshTokenService.findByToken(token).orElseThrow();
+        RefreshToken second = refreshTokenService.findByToken(token).orElseThrow();
+
+        assertNotSame(stored, first);
+        assertNotSame(first, second);
+        assertNotSame(first.getUser(), second.getUser());
+        assertNull(stored.getToken());
+    }
+
+    @Test
+    void verifyExpiration_DeletesTheExpiredRowById() {
+        RefreshToken expired = RefreshToken.builder().id(7L).token("t")
+                .expiryDate(Instant.now().minusSeconds(60)).build();
+
+        assertThrows(TokenRefreshException.class, () -> refreshTokenService.verifyExpiration(expired));
+        verify(refreshTokenRepository).deleteById(7L);
+    }
+}
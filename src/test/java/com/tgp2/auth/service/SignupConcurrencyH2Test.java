@@ -0,0 +1,142 @@
+package com.tgp2.auth.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tgp2.auth.controller.AuthController;
+import com.tgp2.auth.dto.SignupRequest;
+import com.tgp2.auth.exception.GlobalExceptionHandler;
+import com.tgp2.auth.repository.UserRepository;
+import com.tgp2.auth.security.AccessTokenDenylist;
+import com.tgp2.auth.security.JwtUtils;
+import com.tgp2.auth.security.UserDetailsCache;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+/**
+ * Concurrent signups against H2 in MySQL mode, through the controller and the exception handler.
+ * Nothing is wrapped in a test transaction: every insert commits, so the unique constraints decide
+ * the race the way they do in production.
+ */
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:signup;MODE=MySQL;DATABASE_TO_LOWER=TRUE;LOCK_TIMEOUT=10000",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class SignupConcurrencyH2Test {
+
+    private static final int CLIENTS = 16;
+
+    // the User entity listener needs it
+    @MockitoBean private UserDetailsCache userDetailsCache;
+
+    @Autowired private UserRepository userRepository;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setup() {
+        AuthService authService = new AuthService(mock(AuthenticationManager.class), userRepository,
+                new BCryptPasswordEncoder(4), mock(JwtUtils.class), mock(RefreshTokenService.class),
+                mock(PasswordUpgradeService.class), mock(AccessTokenDenylist.class));
+        mockMvc = MockMvcBuilders
+                .standaloneSetup(new AuthController(authService, mock(RefreshTokenService.class),
+                        mock(TokenIntrospectionService.class)))
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .build();
+    }
+
+    @AfterEach
+    void cleanup() {
+        userRepository.deleteAllInBatch();
+    }
+
+    private List<MockHttpServletResponse> signUpConcurrently(List<SignupRequest> requests) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(requests.size());
+        try {
+            CyclicBarrier start = new CyclicBarrier(requests.size());
+            List<Future<MockHttpServletResponse>> calls = new ArrayList<>();
+            for (SignupRequest request : requests) {
+                String body = mapper.writeValueAsString(request);
+                calls.add(pool.submit(() -> {
+                    start.await();
+                    return mockMvc.perform(post("/api/auth/signup")
+                                    .contentType(MediaType.APPLICATION_JSON)
+                                    .content(body))
+                            .andReturn().getResponse();
+                }));
+            }
+            List<MockHttpServletResponse> responses = new ArrayList<>();
+            for (Future<MockHttpServletResponse> call : calls) {
+                responses.add(call.get(30, TimeUnit.SECONDS));
+            }
+            return responses;
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private static void assertOneWinner(List<MockHttpServletResponse> responses, String loserMessage) throws Exception {
+        int created = 0;
+        for (MockHttpServletResponse response : responses) {
+            if (response.getStatus() == 200) {
+                created++;
+                assertEquals("User registered successfully!", response.getContentAsString());
+            } else {
+                assertEquals(400, response.getStatus(), response.getContentAsString());
+                assertTrue(response.getContentAsString().contains(loserMessage), response.getContentAsString());
+            }
+        }
+        assertEquals(1, created);
+    }
+
+    @Test
+    void concurrentSignups_WithTheSameEmail_OneSucceeds_TheRestGetEmailInUse() throws Exception {
+        List<SignupRequest> requests = new ArrayList<>();
+        for (int i = 0; i < CLIENTS; i++) {
+            requests.add(new SignupRequest("user" + i, "same@example.com", "password123", "Student"));
+        }
+
+        assertOneWinner(signUpConcurrently(requests), "Email already in use");
+        assertEquals(1, userRepository.count());
+    }
+
+    @Test
+    void concurrentSignups_WithTheSameUsername_OneSucceeds_TheRestGetUsernameInUse() throws Exception {
+        List<SignupRequest> requests = new ArrayList<>();
+        for (int i = 0; i < CLIENTS; i++) {
+            requests.add(new SignupRequest("same", "user" + i + "@example.com", "password123", "Student"));
+        }
+
+        assertOneWinner(signUpConcurrently(requests), "Username already in use");
+        assertEquals(1, userRepository.count());
+    }
+}
@@ -0,0 +1,108 @@
+package com.tgp2.auth.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SingleFlightTest {
+
+    private static final int CALLERS = 8;
+
+    private SimpleMeterRegistry meterRegistry;
+    private SingleFlight<String, String> singleFlight;
+    private ExecutorService pool;
+
+    @BeforeEach
+    void setup() {
+        meterRegistry = new SimpleMeterRegistry();
+        singleFlight = new SingleFlight<>(meterRegistry, "test");
+        pool = Executors.newFixedThreadPool(CALLERS);
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.shutdownNow();
+    }
+
+    private double calls(String role) {
+        return meterRegistry.get("auth.singleflight.calls").tag("name", "test").tag("role", role).counter().count();
+    }
+
+    // holds the leader inside its loader until every other caller has joined it
+    private List<Future<String>> callConcurrently(AtomicInteger loads, CountDownLatch release, RuntimeException failure)
+            throws InterruptedException {
+        List<Future<String>> results = new ArrayList<>();
+        for (int i = 0; i < CALLERS; i++) {
+            results.add(pool.submit(() -> singleFlight.execute("key", () -> {
+                loads.incrementAndGet();
+                awaitQuietly(release);
+                if (failure != null) {
+                    throw failure;
+                }
+                return "value";
+            })));
+        }
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (calls("follower") < CALLERS - 1 && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        release.countDown();
+        return results;
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Test
+    void concurrentCallers_ShareOneLoad() throws Exception {
+        AtomicInteger loads = new AtomicInteger();
+
+        for (Future<String> result : callConcurrently(loads, new CountDownLatch(1), null)) {
+            assertEquals("value", result.get(5, TimeUnit.SECONDS));
+        }
+
+        assertEquals(1, loads.get());
+        assertEquals(1.0, calls("leader"));
+        assertEquals(CALLERS - 1, calls("follower"));
+    }
+
+    @Test
+    void leaderFailure_IsSeenByEveryFollower() throws Exception {
+        AtomicInteger loads = new AtomicInteger();
+        IllegalStateException failure = new IllegalStateException("db down");
+
+        for (Future<String> result : callConcurrently(loads, new CountDownLatch(1), failure)) {
+            Exception thrown = assertThrows(Exception.class, () -> result.get(5, TimeUnit.SECONDS));
+            assertSame(failure, thrown.getCause());
+        }
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void sequentialCalls_AreNotCached() {
+        AtomicInteger loads = new AtomicInteger();
+
+        singleFlight.execute("key", () -> "v" + loads.incrementAndGet());
+        String second = singleFlight.execute("key", () -> "v" + loads.incrementAndGet());
+
+        assertEquals("v2", second);
+        assertEquals(2.0, calls("leader"));
+    }
+}
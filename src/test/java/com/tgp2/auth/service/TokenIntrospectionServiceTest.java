@@ -0,0 +1,141 @@
+package com.tgp2.auth.service;
+
+import com.tgp2.auth.dto.IntrospectionResponse;
+import com.tgp2.auth.security.AccessTokenDenylist;
+import com.tgp2.auth.security.JwtUtils;
+import com.tgp2.auth.security.UserDetailsImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TokenIntrospectionServiceTest {
+
+    private static final String SECRET = "357638792F423F4428472B4B6250655368566D597133743677397A2443264629";
+    private static final long GATEWAY_ID = 99L;
+
+    @Mock
+    private AccessTokenDenylist denylist;
+
+    private TokenIntrospectionService service;
+
+    private static JwtUtils jwtUtils(int expirationMs) {
+        JwtUtils utils = new JwtUtils();
+        ReflectionTestUtils.setField(utils, "jwtSecret", SECRET);
+        ReflectionTestUtils.setField(utils, "jwtExpirationMs", expirationMs);
+        ReflectionTestUtils.invokeMethod(utils, "init");
+        return utils;
+    }
+
+    @BeforeEach
+    void setup() {
+        service = new TokenIntrospectionService(jwtUtils(3_600_000), denylist);
+        ReflectionTestUtils.setField(service, "maxBatch", 10);
+        ReflectionTestUtils.setField(service, "allowedUserIds", Set.of(GATEWAY_ID));
+    }
+
+    private static UserDetailsImpl user(long id, String email) {
+        return new UserDetailsImpl(id, "user" + id, email, null, "Student", null);
+    }
+
+    @Test
+    void introspect_ActiveToken_ReturnsClaims() {
+        String token = jwtUtils(3_600_000).generateJwtToken(
+                new UserDetailsImpl(1L, "testuser", "test@example.com", "encodedPass", "Student", null));
+
+        IntrospectionResponse response = service.introspect(token);
+
+        assertTrue(response.isActive());
+        assertEquals("active", response.getStatus());
+        assertEquals("test@example.com", response.getSub());
+        assertEquals(1L, response.getUid());
+        assertEquals("Student", response.getRole());
+        assertNotNull(response.getExp());
+    }
+
+    @Test
+    void introspect_RevokedToken_IsInactive() {
+        String token = jwtUtils(3_600_000).generateTokenFromEmail("test@example.com");
+        when(denylist.isRevoked(token)).thenReturn(true);
+
+        IntrospectionResponse response = service.introspect(token);
+
+        assertFalse(response.isActive());
+        assertEquals("revoked", response.getStatus());
+        assertEquals("test@example.com", response.getSub());
+    }
+
+    @Test
+    void introspect_ExpiredToken_StillReportsClaims() {
+        String token = jwtUtils(-1000).generateTokenFromEmail("test@example.com");
+
+        IntrospectionResponse response = service.introspect(token);
+
+        assertFalse(response.isActive());
+        assertEquals("expired", response.getStatus());
+        assertEquals("test@example.com", response.getSub());
+    }
+
+    @Test
+    void introspectAll_KeepsOrder_AndVerifiesRepeatedTokensOnce() {
+        String token = jwtUtils(3_600_000).generateTokenFromEmail("test@example.com");
+
+        List<IntrospectionResponse> responses = service.introspectAll(List.of(token, "garbage", token));
+
+        assertEquals(List.of("active", "invalid", "active"),
+                responses.stream().map(IntrospectionResponse::getStatus).toList());
+        assertNull(responses.get(1).getSub());
+        verify(denylist, times(1)).isRevoked(token);
+    }
+
+    @Test
+    void introspect_OwnToken_IsAllowed() {
+        String token = jwtUtils(3_600_000).generateJwtToken(user(1L, "test@example.com"));
+
+        assertEquals("active", service.introspect(user(1L, "test@example.com"), token).getStatus());
+    }
+
+    @Test
+    void introspect_AnotherUsersToken_IsRejected() {
+        String token = jwtUtils(3_600_000).generateJwtToken(user(1L, "test@example.com"));
+
+        assertThrows(AccessDeniedException.class, () -> service.introspect(user(2L, "other@example.com"), token));
+    }
+
+    @Test
+    void introspectAll_OneForeignToken_RejectsTheBatch() {
+        JwtUtils utils = jwtUtils(3_600_000);
+        List<String> tokens = List.of(utils.generateJwtToken(user(2L, "other@example.com")),
+                utils.generateJwtToken(user(1L, "test@example.com")));
+
+        assertThrows(AccessDeniedException.class, () -> service.introspectAll(user(2L, "other@example.com"), tokens));
+        assertThrows(AccessDeniedException.class, () -> service.introspectAll(user(2L, "other@example.com"), List.of("garbage")));
+    }
+
+    @Test
+    void introspectAll_ConfiguredGateway_MayIntrospectAnyToken() {
+        String token = jwtUtils(3_600_000).generateJwtToken(user(1L, "test@example.com"));
+
+        List<IntrospectionResponse> responses = service.introspectAll(user(GATEWAY_ID, "gw@example.com"), List.of(token, "garbage"));
+
+        assertEquals(List.of("active", "invalid"), responses.stream().map(IntrospectionResponse::getStatus).toList());
+    }
+
+    @Test
+    void introspectAll_RejectsOversizedBatch() {
+        List<String> tokens = Collections.nCopies(11, "t");
+
+        assertThrows(RuntimeException.class, () -> service.introspectAll(tokens));
+    }
+}
@@ -0,0 +1,116 @@
+package com.tgp2.auth.service;
+
+import com.tgp2.auth.entity.User;
+import com.tgp2.auth.repository.UserRepository;
+import com.tgp2.auth.security.UserDetailsCache;
+import com.tgp2.auth.security.UserDetailsImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UserDetailsServiceImplTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    private SimpleMeterRegistry meterRegistry;
+    private UserDetailsCache userDetailsCache;
+    private UserDetailsServiceImpl userDetailsService;
+    private User user;
+
+    @BeforeEach
+    void setup() {
+        meterRegistry = new SimpleMeterRegistry();
+        userDetailsCache = new UserDetailsCache(meterRegistry, 100, 300);
+        userDetailsService = new UserDetailsServiceImpl(userRepository, userDetailsCache, meterRegistry);
+
+        user = User.builder()
+                .id(1L)
+                .username("testuser")
+                .email("test@example.com")
+                .password("encodedPass")
+                .role("Student")
+                .build();
+    }
+
+    @Test
+    void loadPrincipalByEmail_HitsDatabaseOnce_ThenServesFromCache() {
+        when(userRepository.findByEmail("test@example.com")).thenReturn(Optional.of(user));
+
+        UserDetailsImpl first = userDetailsService.loadPrincipalByEmail("test@example.com");
+        UserDetailsImpl second = userDetailsService.loadPrincipalByEmail("test@example.com");
+
+        assertEquals(1L, first.getId());
+        assertEquals("testuser", second.getAccountUsername());
+        assertNull(second.getPassword());
+        verify(userRepository, times(1)).findByEmail("test@example.com");
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("result", "hit").functionCounter().count());
+    }
+
+    @Test
+    void loadPrincipalByEmail_ReloadsAfterEviction() {
+        when(userRepository.findByEmail("test@example.com")).thenReturn(Optional.of(user));
+
+        userDetailsService.loadPrincipalByEmail("test@example.com");
+        userDetailsCache.evict(1L, "old@example.com");
+        userDetailsService.loadPrincipalByEmail("test@example.com");
+
+        verify(userRepository, times(2)).findByEmail("test@example.com");
+    }
+
+    @Test
+    void loadPrincipalByEmail_UnderANewEmail_DropsTheEntryUnderTheOldOne() {
+        User renamed = User.builder().id(1L).username("testuser").email("new@example.com")
+                .password("encodedPass").role("Student").build();
+        when(userRepository.findByEmail("test@example.com")).thenReturn(Optional.of(user));
+        when(userRepository.findByEmail("new@example.com")).thenReturn(Optional.of(renamed));
+
+        userDetailsService.loadPrincipalByEmail("test@example.com");
+        userDetailsService.loadPrincipalByEmail("new@example.com");
+
+        assertTrue(userDetailsCache.get("test@example.com").isEmpty());
+        userDetailsCache.evict(1L, null);
+        assertTrue(userDetailsCache.get("new@example.com").isEmpty());
+    }
+
+    @Test
+    void loadPrincipalByEmail_Throws_WhenUserMissing() {
+        when(userRepository.findByEmail("missing@example.com")).thenReturn(Optional.empty());
+
+        assertThrows(UsernameNotFoundException.class,
+                () -> userDetailsService.loadPrincipalByEmail("missing@example.com"));
+    }
+
+    @Test
+    void loadUserByUsername_AlwaysReadsDatabase() {
+        when(userRepository.findByEmail("test@example.com")).thenReturn(Optional.of(user));
+
+        userDetailsService.loadPrincipalByEmail("test@example.com");
+        UserDetailsImpl details = (UserDetailsImpl) userDetailsService.loadUserByUsername("test@example.com");
+
+        assertEquals("encodedPass", details.getPassword());
+        verify(userRepository, times(2)).findByEmail("test@example.com");
+    }
+
+    @Test
+    void loadUserByUsername_HandsOutADetachedCopy_NeverTheLoadedEntity() {
+        when(userRepository.findByEmail("test@example.com")).thenReturn(Optional.of(user));
+
+        UserDetailsImpl first = (UserDetailsImpl) userDetailsService.loadUserByUsername("test@example.com");
+        UserDetailsImpl second = (UserDetailsImpl) userDetailsService.loadUserByUsername("test@example.com");
+
+        assertNotSame(user, first.getUser());
+        assertNotSame(first.getUser(), second.getUser());
+        assertEquals(1L, first.getUser().getId());
+    }
+}
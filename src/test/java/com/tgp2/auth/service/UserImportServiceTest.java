@@ -0,0 +1,195 @@
+package com.tgp2.auth.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tgp2.auth.security.BoundedPasswordEncoder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.security.crypto.password.NoOpPasswordEncoder;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UserImportServiceTest {
+
+    @Mock private JdbcTemplate jdbcTemplate;
+    @Mock private NamedParameterJdbcTemplate namedJdbcTemplate;
+    @Mock private TransactionTemplate transactionTemplate;
+    @Mock private BoundedPasswordEncoder passwordEncoder;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private UserImportService importService;
+
+    @BeforeEach
+    void setup() {
+        importService = new UserImportService(jdbcTemplate, namedJdbcTemplate, transactionTemplate,
+                passwordEncoder, objectMapper, 2, 2);
+        lenient().when(passwordEncoder.unbounded()).thenReturn(NoOpPasswordEncoder.getInstance());
+        lenient().when(transactionTemplate.execute(any())).thenAnswer(inv ->
+                inv.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+    }
+
+    @AfterEach
+    void tearDown() {
+        importService.shutdown();
+    }
+
+    // answers the post-insert lookup as if every batched row was stored with the hash we wrote
+    @SuppressWarnings("unchecked")
+    private void storeBatchedRows() {
+        List<Object[]> stored = new ArrayList<>();
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenAnswer(inv -> {
+            List<Object[]> rows = inv.getArgument(1);
+            stored.addAll(rows);
+            return new int[rows.size()];
+        });
+        // lenient: the duplicate lookup goes through the same method with other arguments
+        lenient().doAnswer(inv -> {
+            for (Object[] row : stored) {
+                ResultSet rs = mock(ResultSet.class);
+                when(rs.getString("email")).thenReturn((String) row[1]);
+                when(rs.getString("password")).thenReturn((String) row[2]);
+                inv.<RowCallbackHandler>getArgument(2).processRow(rs);
+            }
+            return null;
+        }).when(namedJdbcTemplate).query(startsWith("SELECT email, password"), any(SqlParameterSource.class),
+                any(RowCallbackHandler.class));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void importUsers_Csv_BatchesPerChunkAndReportsEachRow() throws Exception {
+        storeBatchedRows();
+
+        String csv = """
+                username,email,password,role
+                alice,alice@example.com,pw1,Student
+                bob,bob@example.com,pw2,Student
+                carol,not-an-email,pw3,Student
+                dave,dave@example.com,pw4,Student
+                """;
+
+        List<JsonNode> results = run(csv, UserImportService.Format.CSV);
+
+        assertEquals(4, results.size());
+        assertEquals("CREATED", results.get(0).get("status").asText());
+        assertEquals("CREATED", results.get(1).get("status").asText());
+        assertEquals("INVALID", results.get(2).get("status").asText());
+        assertEquals("CREATED", results.get(3).get("status").asText());
+
+        ArgumentCaptor<List<Object[]>> batches = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate, times(2)).batchUpdate(anyString(), batches.capture());
+        assertEquals(2, batches.getAllValues().get(0).size());
+        assertEquals("pw1", batches.getAllValues().get(0).get(0)[2]);
+    }
+
+    @Test
+    void importUsers_ReportsDuplicate_WhenAConcurrentInsertWon() throws Exception {
+        ResultSet other = mock(ResultSet.class);
+        when(other.getString("email")).thenReturn("alice@example.com");
+        when(other.getString("password")).thenReturn("someone-elses-hash");
+        lenient().doAnswer(inv -> {
+            inv.<RowCallbackHandler>getArgument(2).processRow(other);
+            return null;
+        }).when(namedJdbcTemplate).query(startsWith("SELECT email, password"), any(SqlParameterSource.class),
+                any(RowCallbackHandler.class));
+
+        List<JsonNode> results = run("""
+                {"username":"alice","email":"alice@example.com","password":"pw1","role":"Student"}
+                """, UserImportService.Format.NDJSON);
+
+        assertEquals("DUPLICATE", results.get(0).get("status").asText());
+    }
+
+    @Test
+    void importUsers_RejectsOverlongFields_BeforeBatching() throws Exception {
+        String ndjson = """
+                {"username":"%s","email":"a@example.com","password":"pw1","role":"Student"}
+                {"username":"bob","email":"b@example.com","password":"%s","role":"Student"}
+                {"username":"carol","email":"c@example.com","password":"pw3"}
+                """.formatted("u".repeat(256), "p".repeat(73));
+
+        List<JsonNode> results = run(ndjson, UserImportService.Format.NDJSON);
+
+        assertEquals("username is too long", results.get(0).get("message").asText());
+        assertEquals("password is too long", results.get(1).get("message").asText());
+        assertEquals("role is required", results.get(2).get("message").asText());
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    void importUsers_ReportsFailed_WhenTheBatchIsRejected() throws Exception {
+        when(jdbcTemplate.batchUpdate(anyString(), anyList()))
+                .thenThrow(new DataIntegrityViolationException("Data too long"));
+
+        List<JsonNode> results = run("""
+                {"username":"alice","email":"alice@example.com","password":"pw1","role":"Student"}
+                """, UserImportService.Format.NDJSON);
+
+        assertEquals("FAILED", results.get(0).get("status").asText());
+    }
+
+    @Test
+    void open_RejectsMalformedCsvHeader_BeforeAnyOutput() {
+        ByteArrayInputStream body = new ByteArrayInputStream("name,mail\nalice,alice@example.com\n".getBytes(StandardCharsets.UTF_8));
+
+        assertThrows(IllegalArgumentException.class, () -> importService.open(body, UserImportService.Format.CSV));
+    }
+
+    @Test
+    void importUsers_Ndjson_SkipsExistingAndInUploadDuplicates() throws Exception {
+        ResultSet existing = mock(ResultSet.class);
+        when(existing.getString("username")).thenReturn("alice");
+        when(existing.getString("email")).thenReturn("alice@example.com");
+        doAnswer(inv -> {
+            inv.<RowCallbackHandler>getArgument(2).processRow(existing);
+            return null;
+        }).when(namedJdbcTemplate).query(anyString(), any(SqlParameterSource.class), any(RowCallbackHandler.class));
+
+        String ndjson = """
+                {"username":"alice","email":"alice@example.com","password":"pw1","role":"Student"}
+                {"username":"alice","email":"alice@example.com","password":"pw1","role":"Student"}
+                """;
+
+        List<JsonNode> results = run(ndjson, UserImportService.Format.NDJSON);
+
+        assertEquals("DUPLICATE", results.get(0).get("status").asText());
+        assertEquals("Email already in use", results.get(0).get("message").asText());
+        assertEquals("DUPLICATE", results.get(1).get("status").asText());
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), anyList());
+    }
+
+    private List<JsonNode> run(String body, UserImportService.Format format) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        importService.importUsers(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)), format, out);
+
+        List<JsonNode> results = new ArrayList<>();
+        for (String line : out.toString(StandardCharsets.UTF_8).split("\n")) {
+            if (!line.isBlank()) {
+                results.add(objectMapper.readTree(line));
+            }
+        }
+        return results;
+    }
+}
@@ -1,32 +1,42 @@
 package com.tgp2.auth.service.impl;
 
+import com.tgp2.auth.dto.FeedbackBatchResult;
+import com.tgp2.auth.dto.FeedbackPage;
+import com.tgp2.auth.dto.FeedbackReceipt;
 import com.tgp2.auth.dto.FeedbackRequest;
 import com.tgp2.auth.dto.FeedbackResponse;
-import com.tgp2.auth.entity.Feedback;
-import com.tgp2.auth.entity.Paper;
-import com.tgp2.auth.entity.User;
-import com.tgp2.auth.exception.DuplicateResponseException;
 import com.tgp2.auth.exception.ResourceNotFoundException;
 import com.tgp2.auth.repository.FeedbackRepository;
+import com.tgp2.auth.repository.FeedbackRepository.FeedbackView;
 import com.tgp2.auth.repository.PaperRepository;
 import com.tgp2.auth.repository.UserRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.time.LocalDateTime;
-import java.util.Optional;
+import java.util.List;
+import java.util.stream.LongStream;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
 class FeedbackServiceImplTest {
 
+    @Mock private FeedbackWriter feedbackWriter;
     @Mock private FeedbackRepository feedbackRepository;
+    @Mock private NamedParameterJdbcTemplate namedJdbcTemplate;
     @Mock private UserRepository userRepository;
     @Mock private PaperRepository paperRepository;
 
@@ -34,8 +44,6 @@ class FeedbackServiceImplTest {
     private FeedbackServiceImpl feedbackService;
 
     private FeedbackRequest request;
-    private User user;
-    private Paper paper;
 
     @BeforeEach
     void setup() {
@@ -46,111 +54,186 @@ class FeedbackServiceImplTest {
                 .rating(4)
                 .feedbackText("Good material")
                 .build();
-
-        user = new User();
-        user.setId(5L);
-
-        paper = new Paper();
-        paper.setId(10L);
     }
 
     @Test
-    void submitFeedback_Saves_WhenValid() {
-        when(userRepository.findById(5L)).thenReturn(Optional.of(user));
-        when(paperRepository.findById(10L)).thenReturn(Optional.of(paper));
-        when(feedbackRepository.findByPaperIdAndUserId(10L, 5L)).thenReturn(null);
-        when(feedbackRepository.save(any(Feedback.class))).thenAnswer(inv -> {
-            Feedback f = inv.getArgument(0);
-            f.setId(100L);
-            f.setCreatedAt(LocalDateTime.now());
-            return f;
-        });
+    void submitFeedback_IsOneWrite_WithoutEntityLoads() {
+        when(feedbackWriter.write(any(Object[].class))).thenReturn(new FeedbackWriter.Written(100L, LocalDateTime.now(), true));
 
         FeedbackResponse resp = feedbackService.submitFeedback(request, 5L);
 
-        assertNotNull(resp);
         assertEquals(100L, resp.getId());
         assertEquals(10L, resp.getPaperId());
         assertEquals(5L, resp.getUserId());
         assertEquals(4, resp.getRating());
         assertNotNull(resp.getCreatedAt());
 
-        verify(userRepository).findById(5L);
-        verify(paperRepository).findById(10L);
-        verify(feedbackRepository).findByPaperIdAndUserId(10L, 5L);
-        verify(feedbackRepository).save(any(Feedback.class));
+        ArgumentCaptor<Object[]> row = ArgumentCaptor.forClass(Object[].class);
+        verify(feedbackWriter, times(1)).write(row.capture());
+        assertEquals(10L, row.getValue()[0]);
+        assertEquals(5L, row.getValue()[1]);
+        assertEquals(4, row.getValue()[4]);
+        verifyNoMoreInteractions(feedbackWriter);
+        verifyNoInteractions(userRepository, paperRepository);
     }
 
     @Test
-    void submitFeedback_Throws_WhenUserMissing() {
-        when(userRepository.findById(5L)).thenReturn(Optional.empty());
+    void submitFeedback_UpdatesExistingFeedback_WhenDuplicate() {
+        LocalDateTime firstSubmitted = LocalDateTime.of(2025, 11, 1, 9, 30);
+        when(feedbackWriter.write(any(Object[].class))).thenReturn(new FeedbackWriter.Written(77L, firstSubmitted, false));
 
-        assertThrows(ResourceNotFoundException.class,
-                () -> feedbackService.submitFeedback(request, 5L));
+        FeedbackResponse resp = feedbackService.submitFeedback(request, 5L);
 
-        verify(paperRepository, never()).findById(any());
-        verify(feedbackRepository, never()).save(any());
+        assertNotNull(resp);
+        assertEquals(77L, resp.getId()); // same id because updating existing row
+        assertEquals(5L, resp.getUserId());
+        assertEquals(10L, resp.getPaperId());
+        assertEquals(4, resp.getRating()); // updated new rating
+        assertEquals(firstSubmitted.toString(), resp.getCreatedAt()); // the stored timestamp, not now
+        verifyNoInteractions(userRepository, paperRepository);
     }
 
     @Test
-    void submitFeedback_Throws_WhenPaperMissing() {
-        when(userRepository.findById(5L)).thenReturn(Optional.of(user));
-        when(paperRepository.findById(10L)).thenReturn(Optional.empty());
+    void submitFeedback_Throws_WhenUserMissing() {
+        when(feedbackWriter.write(any(Object[].class))).thenThrow(new DataIntegrityViolationException("fk_feedback_user"));
+        when(userRepository.existsById(5L)).thenReturn(false);
 
-        assertThrows(ResourceNotFoundException.class,
+        ResourceNotFoundException ex = assertThrows(ResourceNotFoundException.class,
                 () -> feedbackService.submitFeedback(request, 5L));
 
-        verify(feedbackRepository, never()).save(any());
+        assertTrue(ex.getMessage().contains("User"));
+        verify(paperRepository, never()).existsById(any());
     }
 
     @Test
-    void submitFeedback_UpdatesExistingFeedback_WhenDuplicate() {
-        when(userRepository.findById(5L)).thenReturn(Optional.of(user));
-        when(paperRepository.findById(10L)).thenReturn(Optional.of(paper));
-
-        Feedback existing = new Feedback();
-        existing.setId(77L);
-        existing.setPaper(paper);
-        existing.setUser(user);
-        existing.setRating(3); // old rating
-
-        when(feedbackRepository.findByPaperIdAndUserId(10L, 5L)).thenReturn(existing);
-
-        when(feedbackRepository.save(any(Feedback.class))).thenAnswer(inv -> {
-            Feedback f = inv.getArgument(0);
-            f.setCreatedAt(LocalDateTime.now());
-            return f;
-        });
-
-        FeedbackResponse resp = feedbackService.submitFeedback(request, 5L);
+    void submitFeedback_Throws_WhenPaperMissing() {
+        when(feedbackWriter.write(any(Object[].class))).thenThrow(new DataIntegrityViolationException("fk_feedback_paper"));
+        when(userRepository.existsById(5L)).thenReturn(true);
+        when(paperRepository.existsById(10L)).thenReturn(false);
 
-        assertNotNull(resp);
-        assertEquals(77L, resp.getId()); // same id because updating existing row
-        assertEquals(5L, resp.getUserId());
-        assertEquals(10L, resp.getPaperId());
-        assertEquals(4, resp.getRating()); // updated new rating
+        ResourceNotFoundException ex = assertThrows(ResourceNotFoundException.class,
+                () -> feedbackService.submitFeedback(request, 5L));
 
-        verify(feedbackRepository).findByPaperIdAndUserId(10L, 5L);
-        verify(feedbackRepository).save(any(Feedback.class));
+        assertTrue(ex.getMessage().contains("Paper"));
     }
 
     @Test
     void submitFeedback_Throws_WhenRatingInvalid() {
         request.setRating(0);
-        when(userRepository.findById(5L)).thenReturn(Optional.of(user));
-        when(paperRepository.findById(10L)).thenReturn(Optional.of(paper));
 
         assertThrows(IllegalArgumentException.class,
                 () -> feedbackService.submitFeedback(request, 5L));
+
+        verifyNoInteractions(feedbackWriter);
     }
 
     @Test
     void submitFeedback_Throws_WhenTextTooLong() {
         request.setFeedbackText("a".repeat(2001));
-        when(userRepository.findById(5L)).thenReturn(Optional.of(user));
-        when(paperRepository.findById(10L)).thenReturn(Optional.of(paper));
 
         assertThrows(IllegalArgumentException.class,
                 () -> feedbackService.submitFeedback(request, 5L));
+
+        verifyNoInteractions(feedbackWriter);
+    }
+
+    private FeedbackRequest item(Long paperId, Integer rating) {
+        return FeedbackRequest.builder().paperId(paperId).feedbackType("CONTENT_QUALITY").role("REVIEWER")
+                .rating(rating).feedbackText("ok").build();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void submitFeedbackBatch_ValidatesUpFront_AndWritesOneBatch() {
+        when(namedJdbcTemplate.queryForList(anyString(), any(SqlParameterSource.class), eq(Long.class)))
+                .thenReturn(List.of(10L, 11L));
+
+        List<FeedbackBatchResult> results = feedbackService.submitFeedbackBatch(List.of(
+                item(10L, 5), item(11L, 9), item(12L, 3), item(10L, 4), item(11L, 2)), 5L);
+
+        assertEquals(List.of("SAVED", "INVALID", "NOT_FOUND", "INVALID", "SAVED"),
+                results.stream().map(FeedbackBatchResult::getStatus).toList());
+        assertEquals("Duplicate paper in batch", results.get(3).getMessage());
+
+        ArgumentCaptor<List<Object[]>> batch = ArgumentCaptor.forClass(List.class);
+        verify(feedbackWriter, times(1)).writeAll(batch.capture());
+        assertEquals(2, batch.getValue().size());
+        assertEquals(10L, batch.getValue().get(0)[0]);
+        assertEquals(11L, batch.getValue().get(1)[0]);
+        verifyNoInteractions(userRepository, paperRepository);
+    }
+
+    @Test
+    void submitFeedbackBatch_WritesNothing_WhenEveryItemIsInvalid() {
+        List<FeedbackBatchResult> results = feedbackService.submitFeedbackBatch(List.of(item(null, 5), item(10L, 0)), 5L);
+
+        assertTrue(results.stream().allMatch(r -> r.getStatus().equals("INVALID")));
+        verifyNoInteractions(feedbackWriter, namedJdbcTemplate);
+    }
+
+    @Test
+    void submitFeedbackBatch_Rejects_WhenTooLarge() {
+        List<FeedbackRequest> tooMany = LongStream.rangeClosed(1, 201)
+                .mapToObj(id -> item(id, 4)).toList();
+
+        assertThrows(IllegalArgumentException.class, () -> feedbackService.submitFeedbackBatch(tooMany, 5L));
+        verifyNoInteractions(feedbackWriter, namedJdbcTemplate);
+    }
+
+    @Test
+    void enqueueFeedback_ValidatesThenQueues_WhenWriteBehind() {
+        FeedbackWriteBehindQueue queue = mock(FeedbackWriteBehindQueue.class);
+        ReflectionTestUtils.setField(feedbackService, "writeBehindQueue", queue);
+        when(paperRepository.existsById(10L)).thenReturn(true);
+        when(queue.enqueue(any(Object[].class), eq(5L))).thenReturn("tracking-1");
+
+        FeedbackReceipt receipt = feedbackService.enqueueFeedback(request, 5L);
+
+        assertTrue(feedbackService.isWriteBehind());
+        assertEquals("tracking-1", receipt.getTrackingId());
+        assertEquals("PENDING", receipt.getStatus());
+        verifyNoInteractions(feedbackWriter);
+
+        request.setRating(6);
+        assertThrows(IllegalArgumentException.class, () -> feedbackService.enqueueFeedback(request, 5L));
+        verify(queue, times(1)).enqueue(any(Object[].class), eq(5L));
+    }
+
+    private record View(Long id, LocalDateTime createdAt) implements FeedbackView {
+        public Long getId() { return id; }
+        public Long getPaperId() { return 10L; }
+        public Long getUserId() { return 5L; }
+        public String getFeedbackType() { return "CONTENT_QUALITY"; }
+        public String getRole() { return "REVIEWER"; }
+        public Integer getRating() { return 4; }
+        public String getFeedbackText() { return "ok"; }
+        public LocalDateTime getCreatedAt() { return createdAt; }
+    }
+
+    @Test
+    void getPaperFeedback_ReturnsCursorOfLastRow_AndSeeksFromIt() {
+        LocalDateTime t = LocalDateTime.of(2025, 11, 9, 21, 0, 0, 123_000_000);
+        when(feedbackRepository.findPaperPage(10L, FeedbackServiceImpl.Cursor.FIRST.createdAt(), Long.MAX_VALUE, Limit.of(3)))
+                .thenReturn(List.of(new View(9L, t), new View(8L, t), new View(7L, t.minusSeconds(1))));
+
+        FeedbackPage first = feedbackService.getPaperFeedback(10L, null, 2);
+
+        assertEquals(List.of(9L, 8L), first.getItems().stream().map(FeedbackResponse::getId).toList());
+        assertNotNull(first.getNextCursor());
+
+        when(feedbackRepository.findPaperPage(10L, t, 8L, Limit.of(3))).thenReturn(List.of(new View(7L, t.minusSeconds(1))));
+
+        FeedbackPage second = feedbackService.getPaperFeedback(10L, first.getNextCursor(), 2);
+
+        assertEquals(1, second.getItems().size());
+        assertNull(second.getNextCursor());
+    }
+
+    @Test
+    void getUserFeedback_Rejects_BadCursorOrLimit() {
+        assertThrows(IllegalArgumentException.class, () -> feedbackService.getUserFeedback(5L, "not-a-cursor", 20));
+        assertThrows(IllegalArgumentException.class, () -> feedbackService.getUserFeedback(5L, null, 0));
+        assertThrows(IllegalArgumentException.class, () -> feedbackService.getUserFeedback(5L, null, 101));
+        verifyNoInteractions(feedbackRepository);
     }
 }
@@ -0,0 +1,100 @@
+package com.tgp2.auth.service.impl;
+
+import com.tgp2.auth.exception.FeedbackQueueFullException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class FeedbackWriteBehindQueueTest {
+
+    @Mock private FeedbackWriter feedbackWriter;
+
+    private SimpleMeterRegistry meterRegistry;
+    private FeedbackWriteBehindQueue queue;
+
+    @BeforeEach
+    void setup() {
+        meterRegistry = new SimpleMeterRegistry();
+        queue = new FeedbackWriteBehindQueue(feedbackWriter, meterRegistry,
+                3, 10, 20, 5_000, 60_000);
+    }
+
+    private static Object[] args(long paperId) {
+        return new Object[]{paperId, 5L, "CONTENT_QUALITY", "REVIEWER", 4, "ok", null};
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void queuedSubmissions_AreWrittenAsOneGroup_AndDrainedOnStop() throws Exception {
+        List<String> ids = new ArrayList<>();
+        for (long paperId = 1; paperId <= 3; paperId++) {
+            ids.add(queue.enqueue(args(paperId), 5L));
+        }
+        assertEquals("PENDING", queue.receipt(ids.get(0), 5L).getStatus());
+        assertEquals(3.0, meterRegistry.get("feedback.ingest.queue.depth").gauge().value());
+
+        queue.start();
+        queue.stop();
+
+        ArgumentCaptor<List<Object[]>> group = ArgumentCaptor.forClass(List.class);
+        verify(feedbackWriter, times(1)).writeAll(group.capture());
+        assertEquals(3, group.getValue().size());
+        for (String id : ids) {
+            assertEquals("SAVED", queue.receipt(id, 5L).getStatus());
+        }
+        assertEquals(1, meterRegistry.get("feedback.ingest.flush.size").summary().count());
+        assertEquals(3.0, meterRegistry.get("feedback.ingest.flush.size").summary().totalAmount());
+        assertEquals(1, meterRegistry.get("feedback.ingest.flush.latency").timer().count());
+        assertEquals(0.0, meterRegistry.get("feedback.ingest.queue.depth").gauge().value());
+    }
+
+    @Test
+    void failedGroup_IsRetriedRowByRow() throws Exception {
+        // the group of two fails, then each row is written on its own
+        doAnswer(inv -> {
+            List<Object[]> rows = inv.getArgument(0);
+            if (rows.size() > 1 || rows.get(0)[0].equals(2L)) {
+                throw new DataIntegrityViolationException("fk_feedback_paper");
+            }
+            return null;
+        }).when(feedbackWriter).writeAll(anyList());
+        String saved = queue.enqueue(args(1), 5L);
+        String failed = queue.enqueue(args(2), 5L);
+
+        queue.start();
+        queue.stop();
+
+        assertEquals("SAVED", queue.receipt(saved, 5L).getStatus());
+        assertEquals("FAILED", queue.receipt(failed, 5L).getStatus());
+    }
+
+    @Test
+    void enqueue_Rejects_WhenFull() {
+        for (long paperId = 1; paperId <= 3; paperId++) {
+            queue.enqueue(args(paperId), 5L);
+        }
+
+        assertThrows(FeedbackQueueFullException.class, () -> queue.enqueue(args(4), 5L));
+    }
+
+    @Test
+    void receipt_IsOnlyVisibleToItsOwner() {
+        String id = queue.enqueue(args(1), 5L);
+
+        assertNull(queue.receipt(id, 6L));
+        assertNull(queue.receipt("unknown", 5L));
+    }
+}
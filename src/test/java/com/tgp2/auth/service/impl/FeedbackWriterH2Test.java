@@ -0,0 +1,132 @@
+package com.tgp2.auth.service.impl;
+
+import com.tgp2.auth.security.UserDetailsCache;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the real upserts against H2 in MySQL mode. Nothing is wrapped in a test transaction: every
+ * write commits, so concurrent writers see each other the way they do in production.
+ */
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:feedback-writer;MODE=MySQL;DATABASE_TO_LOWER=TRUE;LOCK_TIMEOUT=10000",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import(FeedbackWriter.class)
+class FeedbackWriterH2Test {
+
+    private static final int WRITERS = 8;
+
+    // the User entity listener needs it; these tests write users through JDBC only
+    @MockitoBean private UserDetailsCache userDetailsCache;
+
+    @Autowired private JdbcTemplate jdbcTemplate;
+    @Autowired private FeedbackWriter writer;
+
+    private long userId;
+
+    @BeforeEach
+    void setup() {
+        jdbcTemplate.update("INSERT INTO users (username, email, password, role) VALUES ('reviewer', 'r@example.com', 'x', 'Student')");
+        userId = jdbcTemplate.queryForObject("SELECT id FROM users WHERE username = 'reviewer'", Long.class);
+    }
+
+    @AfterEach
+    void cleanup() {
+        jdbcTemplate.update("DELETE FROM feedback");
+        jdbcTemplate.update("DELETE FROM paper_rating_summary");
+        jdbcTemplate.update("DELETE FROM papers");
+        jdbcTemplate.update("DELETE FROM users");
+    }
+
+    private long paper() {
+        jdbcTemplate.update("INSERT INTO papers (title, user_id) VALUES ('Paper', ?)", userId);
+        return jdbcTemplate.queryForObject("SELECT MAX(id) FROM papers", Long.class);
+    }
+
+    private Object[] row(long paperId, int rating) {
+        return new Object[]{paperId, userId, "CONTENT_QUALITY", "REVIEWER", rating, "ok",
+                Timestamp.valueOf(LocalDateTime.now())};
+    }
+
+    private Map<String, Object> summary(long paperId) {
+        return jdbcTemplate.queryForMap("SELECT * FROM paper_rating_summary WHERE paper_id = ?", paperId);
+    }
+
+    @Test
+    void concurrentFirstSubmissions_ForTheSamePaperAndUser_CountOnce() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(WRITERS);
+        try {
+            for (int round = 0; round < 10; round++) {
+                long paperId = paper();
+                CyclicBarrier start = new CyclicBarrier(WRITERS);
+                List<Future<FeedbackWriter.Written>> writes = new ArrayList<>();
+                for (int i = 0; i < WRITERS; i++) {
+                    writes.add(pool.submit(() -> {
+                        start.await();
+                        return writer.write(row(paperId, 4));
+                    }));
+                }
+                int created = 0;
+                for (Future<FeedbackWriter.Written> write : writes) {
+                    created += write.get(30, TimeUnit.SECONDS).created() ? 1 : 0;
+                }
+
+                assertEquals(1, created);
+                assertEquals(1L, ((Number) summary(paperId).get("rating_count")).longValue());
+                assertEquals(4L, ((Number) summary(paperId).get("rating_sum")).longValue());
+                assertEquals(1L, ((Number) summary(paperId).get("rating_4")).longValue());
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void resubmission_UpdatesInPlace_KeepsIdAndCreatedAt_AndMovesTheRatingBetweenBuckets() {
+        long paperId = paper();
+        Object[] first = row(paperId, 2);
+        first[6] = Timestamp.valueOf(LocalDateTime.of(2025, 11, 1, 9, 30));
+
+        FeedbackWriter.Written inserted = writer.write(first);
+        FeedbackWriter.Written updated = writer.write(row(paperId, 5));
+
+        assertTrue(inserted.created());
+        assertFalse(updated.created());
+        assertEquals(inserted.id(), updated.id());
+        assertEquals(LocalDateTime.of(2025, 11, 1, 9, 30), updated.createdAt());
+        assertEquals(5, jdbcTemplate.queryForObject("SELECT rating FROM feedback WHERE id = ?", Integer.class, updated.id()));
+        Map<String, Object> summary = summary(paperId);
+        assertEquals(1L, ((Number) summary.get("rating_count")).longValue());
+        assertEquals(5L, ((Number) summary.get("rating_sum")).longValue());
+        assertEquals(0L, ((Number) summary.get("rating_2")).longValue());
+        assertEquals(1L, ((Number) summary.get("rating_5")).longValue());
+    }
+}
@@ -0,0 +1,169 @@
+package com.tgp2.auth.service.impl;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigInteger;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class FeedbackWriterTest {
+
+    @Mock private JdbcTemplate jdbcTemplate;
+    @Mock private NamedParameterJdbcTemplate namedJdbcTemplate;
+    @Mock private TransactionTemplate transactionTemplate;
+
+    private FeedbackWriter writer;
+
+    @BeforeEach
+    void setup() {
+        writer = new FeedbackWriter(jdbcTemplate, namedJdbcTemplate, transactionTemplate);
+        lenient().when(transactionTemplate.execute(any())).thenAnswer(inv ->
+                inv.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+    }
+
+    private static Object[] row(long paperId, long userId, int rating) {
+        return new Object[]{paperId, userId, "CONTENT_QUALITY", "REVIEWER", rating, "ok",
+                Timestamp.valueOf(LocalDateTime.now())};
+    }
+
+    // the read after the summary lock finds these (paperId, userId, rating) rows
+    private void existingRatings(Object[]... rows) {
+        doAnswer(inv -> {
+            RowCallbackHandler handler = inv.getArgument(2);
+            for (Object[] existing : rows) {
+                ResultSet rs = mock(ResultSet.class);
+                when(rs.getLong("paper_id")).thenReturn((Long) existing[0]);
+                when(rs.getLong("user_id")).thenReturn((Long) existing[1]);
+                when(rs.getInt("rating")).thenReturn((Integer) existing[2]);
+                handler.processRow(rs);
+            }
+            return null;
+        }).when(namedJdbcTemplate).query(eq(FeedbackWriter.EXISTING_ROWS_SQL), any(SqlParameterSource.class),
+                any(RowCallbackHandler.class));
+    }
+
+    private void upsertReturnsId(long id) {
+        when(jdbcTemplate.update(any(PreparedStatementCreator.class), any(KeyHolder.class))).thenAnswer(inv -> {
+            inv.<KeyHolder>getArgument(1).getKeyList().add(Map.of("GENERATED_KEY", BigInteger.valueOf(id)));
+            return 1;
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Object[]> summaryDeltas() {
+        ArgumentCaptor<List<Object[]>> deltas = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(eq(FeedbackWriter.SUMMARY_DELTA_SQL), deltas.capture());
+        return deltas.getValue();
+    }
+
+    @Test
+    void write_NewRating_AddsToCountSumAndBucket() {
+        existingRatings();
+        upsertReturnsId(100L);
+
+        FeedbackWriter.Written written = writer.write(row(10L, 5L, 4));
+
+        assertEquals(100L, written.id());
+        assertTrue(written.created());
+        assertArrayEquals(new Object[]{10L, 1L, 4L, 0L, 0L, 0L, 1L, 0L}, summaryDeltas().get(0));
+    }
+
+    @Test
+    void write_ChangedRating_MovesBetweenBuckets() {
+        existingRatings(new Object[]{10L, 5L, 2});
+        upsertReturnsId(77L);
+
+        FeedbackWriter.Written written = writer.write(row(10L, 5L, 5));
+
+        assertFalse(written.created());
+        assertArrayEquals(new Object[]{10L, 0L, 3L, 0L, -1L, 0L, 0L, 1L}, summaryDeltas().get(0));
+    }
+
+    @Test
+    void write_UnchangedRating_SkipsSummaryStatement() {
+        existingRatings(new Object[]{10L, 5L, 4});
+        upsertReturnsId(77L);
+
+        writer.write(row(10L, 5L, 4));
+
+        verify(jdbcTemplate, never()).batchUpdate(eq(FeedbackWriter.SUMMARY_DELTA_SQL), anyList());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void write_LocksSummaryRowsInPaperOrder_BeforeReadingRatings() {
+        existingRatings();
+
+        writer.writeAll(List.of(row(20L, 5L, 3), row(10L, 5L, 5), row(20L, 6L, 3)));
+
+        InOrder inOrder = inOrder(jdbcTemplate, namedJdbcTemplate);
+        ArgumentCaptor<List<Object[]>> summaryRows = ArgumentCaptor.forClass(List.class);
+        inOrder.verify(jdbcTemplate).batchUpdate(eq(FeedbackWriter.SUMMARY_ROW_SQL), summaryRows.capture());
+        inOrder.verify(namedJdbcTemplate).queryForList(eq(FeedbackWriter.LOCK_SUMMARIES_SQL),
+                any(SqlParameterSource.class), eq(Long.class));
+        inOrder.verify(namedJdbcTemplate).query(eq(FeedbackWriter.EXISTING_ROWS_SQL), any(SqlParameterSource.class),
+                any(RowCallbackHandler.class));
+        inOrder.verify(jdbcTemplate).batchUpdate(eq(FeedbackWriter.UPSERT_SQL), anyList());
+        assertEquals(List.of(10L, 20L), summaryRows.getValue().stream().map(args -> args[0]).toList());
+    }
+
+    @Test
+    void write_RetriesTheTransaction_WhenItLosesADeadlock() {
+        existingRatings();
+        upsertReturnsId(100L);
+        doThrow(new CannotAcquireLockException("Deadlock found when trying to get lock"))
+                .doAnswer(inv -> inv.<TransactionCallback<?>>getArgument(0).doInTransaction(null))
+                .when(transactionTemplate).execute(any());
+
+        FeedbackWriter.Written written = writer.write(row(10L, 5L, 4));
+
+        assertEquals(100L, written.id());
+        verify(transactionTemplate, times(2)).execute(any());
+    }
+
+    @Test
+    void write_GivesUp_AfterMaxAttempts() {
+        doThrow(new CannotAcquireLockException("Deadlock found when trying to get lock"))
+                .when(transactionTemplate).execute(any());
+
+        assertThrows(CannotAcquireLockException.class, () -> writer.write(row(10L, 5L, 4)));
+        verify(transactionTemplate, times(FeedbackWriter.MAX_ATTEMPTS)).execute(any());
+    }
+
+    @Test
+    void writeAll_AggregatesDeltasPerPaper_InPaperOrder() {
+        existingRatings(new Object[]{20L, 6L, 1});
+
+        writer.writeAll(List.of(row(20L, 5L, 3), row(10L, 5L, 5), row(20L, 6L, 3), row(20L, 5L, 4)));
+
+        verify(jdbcTemplate).batchUpdate(eq(FeedbackWriter.UPSERT_SQL), anyList());
+        List<Object[]> deltas = summaryDeltas();
+        assertEquals(2, deltas.size());
+        assertArrayEquals(new Object[]{10L, 1L, 5L, 0L, 0L, 0L, 0L, 1L}, deltas.get(0));
+        // user 5: new 3 then 3 -> 4 (net +1 at 4); user 6: 1 -> 3
+        assertArrayEquals(new Object[]{20L, 1L, 6L, -1L, 0L, 1L, 1L, 0L}, deltas.get(1));
+    }
+}